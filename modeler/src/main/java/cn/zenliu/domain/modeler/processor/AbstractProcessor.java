@@ -18,6 +18,7 @@ package cn.zenliu.domain.modeler.processor;
 import cn.zenliu.domain.modeler.annotation.Generated;
 import cn.zenliu.domain.modeler.annotation.Mode;
 import cn.zenliu.domain.modeler.processor.safer.Configurer;
+import cn.zenliu.domain.modeler.processor.safer.Profiler;
 import cn.zenliu.domain.modeler.util.Loader;
 import com.squareup.javapoet.*;
 import lombok.Getter;
@@ -167,10 +168,19 @@ public abstract class AbstractProcessor {
         return AnnotationSpec.builder(Generated.class)
                 .addMember("processor", "$S", name())
                 .addMember("version", "$S", pomVersion())
-                .addMember("timestamp", "$LL", System.currentTimeMillis())
+                .addMember("timestamp", "$LL", timestamp())
                 .build();
     }
 
+    /**
+     * @return timestamp for {@link Generated#timestamp()}
+     * @see Configurer.Config#timestamp()
+     */
+    protected long timestamp() {
+        var c = Configurer.ROOT_CONF.get();
+        return c == null ? System.currentTimeMillis() : c.timestamp();
+    }
+
     /**
      * @param ele current process element
      * @param u   util
@@ -180,7 +190,8 @@ public abstract class AbstractProcessor {
         if (u.isGeneratedBy(ele, name())) {
             return null;
         }
-        var c = Configurer.resolve(u, ele);
+        var p = u.profiler();
+        var c = p == null ? Configurer.resolve(u, ele) : p.time(name(), ele, Profiler.Phase.CONFIG, () -> Configurer.resolve(u, ele));
         if (!(c.enabled(self().getPrefix()))) {
             if (c.debug()) u.mandatoryWarn(self(), "disabled when process {}", ele);
             return null;
@@ -15,6 +15,8 @@
 
 package cn.zenliu.domain.modeler.processor;
 
+import cn.zenliu.domain.modeler.processor.safer.Emitter;
+import cn.zenliu.domain.modeler.processor.safer.Profiler;
 import com.squareup.javapoet.JavaFile;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.ApiStatus;
@@ -24,10 +26,9 @@ import javax.annotation.Nullable;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -47,35 +48,50 @@ public abstract class BaseFileProcessor extends AbstractProcessor {
         this.target = target;
     }
 
-    @SneakyThrows
     @Override
     public boolean process(Element element, Set<? extends TypeElement> annotations, RoundEnvironment roundEnv, ProcUtil u) {
         if (element != null && !isPrototype(element)) {
-            if (u.isDebug()) u.note("{} will process {}", name(), element);
-            var f = processElement(element, roundEnv, u);
-            if (u.isDebug()) u.note("{} done process {}  {} file", name(), element, f == null ? "have" : "none");
-            if (f != null)
-                for (JavaFile x : f) {
-                    x.writeTo(u.filer());
-                }
+            processOne(element, roundEnv, u);
         } else {
             for (var ann : target) {
                 for (var ele : roundEnv.getElementsAnnotatedWith(ann)) {
-                    if (isPrototype(element)) continue;
-                    if (u.isDebug()) u.note("{} will process {}", name(), ele);
-                    var f = processElement(ele, roundEnv, u);
-                    if (u.isDebug()) u.note("{} done process {}  {} file", name(), ele, f == null ? "have" : "none");
-                    if (f != null)
-                        for (JavaFile x : f) {
-                            x.writeTo(u.filer());
-                        }
-
+                    if (isPrototype(ele)) continue;
+                    processOne(ele, roundEnv, u);
                 }
             }
         }
         return false;
     }
 
+    @SneakyThrows
+    protected void processOne(Element ele, RoundEnvironment roundEnv, ProcUtil u) {
+        var p = u.profiler();
+        if (u.isDebug()) u.note("{} will process {}", name(), ele);
+        var f = p == null ? processElement(ele, roundEnv, u) : p.time(name(), ele, Profiler.Phase.GENERATE, () -> processElement(ele, roundEnv, u));
+        if (u.isDebug()) u.note("{} done process {}  {} file", name(), ele, f == null ? "none" : f.size());
+        if (f != null)
+            for (JavaFile x : f) write(x, ele, u);
+    }
+
+    protected static String qualifiedName(JavaFile file) {
+        return file.packageName.isEmpty() ? file.typeSpec.name : file.packageName + "." + file.typeSpec.name;
+    }
+
+    /**
+     * write the file with the source element as an originating element, which is required by incremental builds.
+     *
+     * @param file   generated file
+     * @param origin the element generated from
+     * @param u      util
+     */
+    protected void write(JavaFile file, @Nullable Element origin, ProcUtil u) throws IOException {
+        var name = qualifiedName(file);
+        var origins = new ArrayList<Element>(file.typeSpec.originatingElements);
+        if (origin != null && !origins.contains(origin)) origins.add(origin);
+        var e = u.emitter();
+        if (e == null) e = new Emitter(u.filer(), u.profiler());
+        e.emit(name(), origin == null ? name : origin, name, file::toString, origins.toArray(Element[]::new));
+    }
 
     protected abstract @Nullable List<@NotNull JavaFile> processElement(Element ele, RoundEnvironment roundEnv, ProcUtil u);
 
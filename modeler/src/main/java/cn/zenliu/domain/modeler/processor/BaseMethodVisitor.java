@@ -47,7 +47,7 @@ public abstract class BaseMethodVisitor<P> extends ElementScanner14<P, P> {
         if (root == null) {
             haveTypeField = e.getAnnotation(Mode.Field.class) != null;
             root = e.asType();
-            for (var ex : u.elements().getAllMembers(e)) {
+            for (var ex : u.orderedMembers(e)) {
                 if (ex.getKind() == ElementKind.METHOD) {
                     var b = ex.accept(this, builder);
                     if (b != null) builder = b;
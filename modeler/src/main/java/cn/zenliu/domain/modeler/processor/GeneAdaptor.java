@@ -16,9 +16,11 @@
 package cn.zenliu.domain.modeler.processor;
 
 import cn.zenliu.domain.modeler.annotation.Gene;
+import cn.zenliu.domain.modeler.annotation.Mode;
 import cn.zenliu.domain.modeler.processor.safer.Configurer;
 import cn.zenliu.domain.modeler.processor.safer.Pair;
 import cn.zenliu.domain.modeler.prototype.Meta;
+import cn.zenliu.domain.modeler.util.Flyweights;
 import cn.zenliu.domain.modeler.util.Projections;
 import com.squareup.javapoet.*;
 import org.jetbrains.annotations.ApiStatus;
@@ -26,18 +28,22 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.ElementScanner14;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static cn.zenliu.domain.modeler.processor.GeneAdaptor.GeneContext.ModelMethodVisitor.MethodBuildContext.CODES.*;
 
@@ -55,33 +61,164 @@ public class GeneAdaptor extends BaseFileProcessor {
     }
 
     protected final static String TARGET = "@Gene.Adapt";
+    protected final static String IMMUTABLE = "org.immutables.value.Value.Immutable";
+    /**
+     * prefix of memoized field of a projected getter
+     */
+    protected final static String MEMO_PREFIX = "memo$";
 
+    /**
+     * static mapping methods of mappers, indexed by erased names of parameter and return type.
+     */
     static class Mappings {
-        final Map<Pair<TypeMirror, TypeMirror>, ExecutableElement> mappings;
+        final ProcUtil u;
+        final List<Map<String, List<ExecutableElement>>> indices;
 
         Mappings(List<TypeElement> m, ProcUtil u) {
-            if (m == null || m.isEmpty()) {
-                mappings = Map.of();
-            } else
-                mappings = m.stream()
-                        .flatMap(x -> u.allMembers(x).stream())
-                        .filter(ExecutableElement.class::isInstance)
-                        .map(ExecutableElement.class::cast)
-                        .filter(x -> u.isDefault(x)
-                                && x.getParameters().size() == 1
-                                && x.getReturnType().getKind() != TypeKind.VOID
-                        ).collect(Collectors.toMap(
-                                x -> new Pair<>(x.getParameters().get(0).asType(), x.getReturnType()),
-                                Function.identity()));
+            this.u = u;
+            indices = m == null || m.isEmpty() ? List.of() : m.stream()
+                    .map(x -> index(x, u))
+                    .filter(x -> !x.isEmpty())
+                    .toList();
+        }
+
+        static String key(TypeMirror from, TypeMirror to, ProcUtil u) {
+            return u.erasure(from) + "->" + u.erasure(to);
+        }
+
+        /**
+         * @return index of a mapper, which is shared by all adaptors of current round
+         */
+        static Map<String, List<ExecutableElement>> index(TypeElement mapper, ProcUtil u) {
+            var c = u.cache();
+            return c == null ? build(mapper, u) : c.shared("adaptor.mapper:" + mapper.getQualifiedName(), x -> build(mapper, u));
+        }
 
+        static Map<String, List<ExecutableElement>> build(TypeElement mapper, ProcUtil u) {
+            var out = new HashMap<String, List<ExecutableElement>>();
+            for (var e : u.allMembers(mapper)) {
+                if (e instanceof ExecutableElement x
+                        && x.getKind() == ElementKind.METHOD
+                        && u.isStatic(x)
+                        && x.getParameters().size() == 1
+                        && x.getReturnType().getKind() != TypeKind.VOID)
+                    out.computeIfAbsent(key(x.getParameters().get(0).asType(), x.getReturnType(), u), k -> new ArrayList<>(1)).add(x);
+            }
+            return Collections.unmodifiableMap(out);
         }
 
         boolean isEmpty() {
-            return mappings.isEmpty();
+            return indices.isEmpty();
         }
 
+        /**
+         * @return first method in declared order of mappers, which has same types, or a generic method whose return type
+         * is assignable to target after type variables bound by the parameter.
+         */
         Optional<ExecutableElement> get(TypeMirror from, TypeMirror to) {
-            return Optional.ofNullable(mappings.get(new Pair<>(from, to)));
+            if (indices.isEmpty()) return Optional.empty();
+            var k = key(from, to, u);
+            for (var index : indices) {
+                var l = index.get(k);
+                if (l == null) continue;
+                for (var x : l) {
+                    if (x.getTypeParameters().isEmpty()
+                            ? u.isSameType(x.getParameters().get(0).asType(), from) && u.isSameType(x.getReturnType(), to)
+                            : generic(x, from, to))
+                        return Optional.of(x);
+                }
+            }
+            return Optional.empty();
+        }
+
+        boolean generic(ExecutableElement x, TypeMirror from, TypeMirror to) {
+            var bound = new HashMap<Element, TypeMirror>();
+            if (!bind(x.getParameters().get(0).asType(), from, bound)) return false;
+            var r = substitute(x.getReturnType(), bound);
+            return r != null && u.isAssignableTo(r, to);
+        }
+
+        /**
+         * bind type variables of declared type to the actual type, both have same erasure.
+         *
+         * @return false if the actual type not matches
+         */
+        boolean bind(TypeMirror declared, TypeMirror actual, Map<Element, TypeMirror> bound) {
+            switch (declared.getKind()) {
+                case TYPEVAR -> {
+                    if (actual.getKind().isPrimitive()) actual = u.boxedClass((PrimitiveType) actual).asType();
+                    if (actual.getKind() != TypeKind.DECLARED && actual.getKind() != TypeKind.ARRAY) return false;
+                    var v = (TypeVariable) declared;
+                    var b = bound.putIfAbsent(v.asElement(), actual);
+                    if (b != null) return u.isSameType(b, actual);
+                    return u.isAssignableTo(actual, u.erasure(v.getUpperBound()));
+                }
+                case WILDCARD -> {
+                    var w = (WildcardType) declared;
+                    if (actual instanceof WildcardType a) {
+                        if (w.getExtendsBound() != null && a.getExtendsBound() != null)
+                            return bind(w.getExtendsBound(), a.getExtendsBound(), bound);
+                        if (w.getSuperBound() != null && a.getSuperBound() != null)
+                            return bind(w.getSuperBound(), a.getSuperBound(), bound);
+                        return w.getExtendsBound() == null && w.getSuperBound() == null;
+                    }
+                    if (w.getExtendsBound() != null) return bind(w.getExtendsBound(), actual, bound);
+                    if (w.getSuperBound() != null) return bind(w.getSuperBound(), actual, bound);
+                    return true;
+                }
+                case ARRAY -> {
+                    return actual instanceof ArrayType a && bind(((ArrayType) declared).getComponentType(), a.getComponentType(), bound);
+                }
+                case DECLARED -> {
+                    if (!(actual instanceof DeclaredType a)) return false;
+                    var ds = ((DeclaredType) declared).getTypeArguments();
+                    if (ds.isEmpty()) return u.isAssignableTo(actual, declared);
+                    var as = a.getTypeArguments();
+                    if (as.size() != ds.size()) return false;
+                    for (int i = 0; i < ds.size(); i++) {
+                        if (!bind(ds.get(i), as.get(i), bound)) return false;
+                    }
+                    return true;
+                }
+                default -> {
+                    return u.isSameType(declared, actual);
+                }
+            }
+        }
+
+        /**
+         * @return type with bound variables substituted, null if any variable not bound.
+         */
+        @Nullable
+        TypeMirror substitute(TypeMirror t, Map<Element, TypeMirror> bound) {
+            switch (t.getKind()) {
+                case TYPEVAR -> {
+                    return bound.get(((TypeVariable) t).asElement());
+                }
+                case WILDCARD -> {
+                    var w = (WildcardType) t;
+                    var e = w.getExtendsBound() == null ? null : substitute(w.getExtendsBound(), bound);
+                    var s = w.getSuperBound() == null ? null : substitute(w.getSuperBound(), bound);
+                    if (w.getExtendsBound() != null && e == null || w.getSuperBound() != null && s == null) return null;
+                    return u.types().getWildcardType(e, s);
+                }
+                case ARRAY -> {
+                    var c = substitute(((ArrayType) t).getComponentType(), bound);
+                    return c == null ? null : u.types().getArrayType(c);
+                }
+                case DECLARED -> {
+                    var d = (DeclaredType) t;
+                    if (d.getTypeArguments().isEmpty()) return t;
+                    var args = new TypeMirror[d.getTypeArguments().size()];
+                    for (int i = 0; i < args.length; i++) {
+                        if ((args[i] = substitute(d.getTypeArguments().get(i), bound)) == null) return null;
+                    }
+                    return u.types().getDeclaredType((TypeElement) d.asElement(), args);
+                }
+                default -> {
+                    return t;
+                }
+            }
         }
     }
 
@@ -92,9 +229,8 @@ public class GeneAdaptor extends BaseFileProcessor {
         if (c == null) return null;
 
         if (ele instanceof TypeElement t) {
-            var genClass = c.readBoolean(prefix + "class").orElse(false);
-            var genInterface = c.readBoolean(prefix + "interface").orElse(true);
-            if (!genClass && !genInterface) {
+            var o = options(c);
+            if (!o.genClass() && !o.genInterface()) {
                 u.error("generate {} for class adapter and interface adaptor both are disabled", t);
                 return null;
             }
@@ -107,13 +243,50 @@ public class GeneAdaptor extends BaseFileProcessor {
                 u.error("{} annotated value {} is not a interface,adaptor can only generate for interface", t, tar);
                 return null;
             }
-            return new GeneContext(u, t, tar, a, c).build();
+            return new GeneContext(u, t, tar, a, c, o).build();
 
         }
         u.warn("{} not a valid target of {}", ele.toString(), TARGET);
         return null;
     }
 
+    /**
+     * @param genClass     generate class adaptor
+     * @param genInterface generate interface adaptor
+     * @param instance     check instance of entity
+     * @param lazy         project collections as read-only views, which map elements on access
+     * @param memoize      class adaptor caches projected results of immutable entity or read-only getters
+     * @param flyweight    method of {@link Flyweights} to reuse adaptor of same entity, null if disabled
+     */
+    protected record Options(boolean genClass, boolean genInterface, boolean instance, boolean lazy, boolean memoize,
+                             @Nullable String flyweight) {
+    }
+
+    /**
+     * @return options compiled once of each config
+     */
+    protected Options options(Configurer.Config c) {
+        return c.compile(this, x -> new Options(
+                x.readBoolean(prefix + "class").orElse(false),
+                x.readBoolean(prefix + "interface").orElse(true),
+                x.readBoolean(prefix + "instance").orElse(true),
+                x.readBoolean(prefix + "lazy").orElse(false),
+                x.readBoolean(prefix + "memoize").orElse(false),
+                flyweight(x.readString(prefix + "flyweight").orElse("false"))));
+    }
+
+    /**
+     * @param v config value: 'false', 'true' or 'weak', 'scope'
+     * @return method of {@link Flyweights}, null if disabled
+     */
+    protected static @Nullable String flyweight(String v) {
+        return switch (v.trim().toLowerCase()) {
+            case "true", "weak" -> "weak";
+            case "scope", "scoped" -> "scoped";
+            default -> null;
+        };
+    }
+
     @Override
     protected AbstractProcessor self() {
         return this;
@@ -125,14 +298,16 @@ public class GeneAdaptor extends BaseFileProcessor {
         final TypeElement model;
         final ProcUtil.Annotated anno;
         final Configurer.Config conf;
+        final Options options;
 
 
-        GeneContext(ProcUtil u, TypeElement entity, TypeElement model, ProcUtil.Annotated anno, Configurer.Config conf) {
+        GeneContext(ProcUtil u, TypeElement entity, TypeElement model, ProcUtil.Annotated anno, Configurer.Config conf, Options options) {
             this.u = u;
             this.entity = entity;
             this.model = model;
             this.anno = anno;
             this.conf = conf;
+            this.options = options;
         }
 
         private Mappings mappings;
@@ -141,6 +316,7 @@ public class GeneAdaptor extends BaseFileProcessor {
         private boolean checkInstance;
         private boolean genInterface;
         private boolean genClass;
+        private boolean immutable;
         private String pkg;
 
         private List<TypeMirror> mixins;
@@ -153,7 +329,7 @@ public class GeneAdaptor extends BaseFileProcessor {
         private ParameterizedTypeName genParamInterfaceName;
 
         private boolean config() {
-            mappings = new Mappings(anno.readClassElements("mapper"), u);
+            mappings = new Mappings(anno.readClassElements("mappers"), u);
             mixins = anno.readClasses("mixins");
             var entityTypeParameters = entity.getTypeParameters().stream().map(TypeVariableName::get).toArray(TypeVariableName[]::new);
             Map<String, TypeMirror> entityTypeVariables = u.resolveTypeParameters(entity);
@@ -162,9 +338,10 @@ public class GeneAdaptor extends BaseFileProcessor {
             Map<String, TypeMirror> declaredTypeParameters = anno.readMap("names", "types",
                     ProcUtil.Annotated::mayString,
                     ProcUtil.Annotated::mayClass);
-            checkInstance = conf.readBoolean(prefix + "instance").orElse(true);
-            genInterface = conf.readBoolean(prefix + "interface").orElse(true);
-            genClass = conf.readBoolean(prefix + "class").orElse(false);
+            checkInstance = options.instance();
+            genInterface = options.genInterface();
+            genClass = options.genClass();
+            immutable = isImmutable(entity);
             u.mergeTypeVariables(modelTypeVariables, entityTypeVariables, declaredTypeParameters);
             entityTypeVariableNames = isGeneric ? entity.getTypeParameters().stream()
                     .map(TypeVariableName::get)
@@ -177,6 +354,18 @@ public class GeneAdaptor extends BaseFileProcessor {
             return true;
         }
 
+        /**
+         * @return true if entity is a record, or annotated by Immutables or {@link Mode.Values}
+         */
+        private boolean isImmutable(TypeElement t) {
+            if (t.getKind() == ElementKind.RECORD) return true;
+            for (var a : t.getAnnotationMirrors()) {
+                var n = ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (n.equals(IMMUTABLE) || n.equals(Mode.Values.class.getCanonicalName())) return true;
+            }
+            return false;
+        }
+
         private Function<TypeMirror, TypeName> parameterConv(TypeName self, TypeElement selfType) {
             return x -> typeParameterConv(x, self, selfType);
         }
@@ -243,7 +432,9 @@ public class GeneAdaptor extends BaseFileProcessor {
                             .returns(isGeneric ? genParamClassName : genClassName)
                             .addParameter(TypeName.get(entity.asType()), "entity")
                             .addTypeVariables(entityTypeVariableNames)
-                            .addCode("return new $T<>(entity);", genClassName)
+                            .addCode(options.flyweight() == null
+                                    ? CodeBlock.of("return new $T<>(entity);", genClassName)
+                                    : CodeBlock.of("return $T.$L($T.class, entity, $T::new);", Flyweights.class, options.flyweight(), genClassName, genClassName))
                             .build());
             else
                 cls = TypeSpec.classBuilder(model.getSimpleName() + Meta.Adaptor.CLASS_SUFFIX)
@@ -259,14 +450,91 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 .build())
                         .addMethod(MethodSpec.methodBuilder("of")
                                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                                .returns(genClassName)
                                 .addParameter(TypeName.get(entity.asType()), "entity")
-                                .addCode("return new $T(entity);", genClassName)
+                                .addCode(unwrapNested())
+                                .addCode(options.flyweight() == null
+                                        ? CodeBlock.of("return new $T(entity);", genClassName)
+                                        : CodeBlock.of("return $T.$L($T.class, entity, $T::new);", Flyweights.class, options.flyweight(), genClassName, genClassName))
                                 .build());
+            cls.addMethod(MethodSpec.methodBuilder("unwrap")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(TypeName.get(entity.asType()))
+                    .addCode("return entity;")
+                    .build());
+            bulk(cls, genClassName, isGeneric ? genParamClassName : genClassName);
             if (mixins != null && !mixins.isEmpty())
                 mixins.forEach(f -> cls.addSuperinterface(f));
             return true;
         }
 
+        /**
+         * an entity of interface may be another adaptor, which should be unwrapped instead of stacking wrappers.
+         *
+         * @return code to unwrap the parameter 'entity'
+         */
+        private CodeBlock unwrapNested() {
+            if (isGeneric || !entity.getKind().isInterface()) return CodeBlock.of("");
+            return CodeBlock.of("if (entity instanceof $T a && a.unwrap() instanceof $T e) entity = e;\n",
+                    Meta.Adaptor.class, TypeName.get(entity.asType()));
+        }
+
+        /**
+         * static bulk conversions, which delegate each element to the static 'of' of adaptor type.
+         *
+         * @param type adaptor type builder
+         * @param raw  adaptor class name
+         * @param self adaptor type name, parameterized when entity is generic
+         */
+        private void bulk(TypeSpec.Builder type, ClassName raw, TypeName self) {
+            var e = TypeName.get(entity.asType());
+            var sub = WildcardTypeName.subtypeOf(e);
+            var list = ParameterizedTypeName.get(ClassName.get(List.class), self);
+            type.addMethod(MethodSpec.methodBuilder("ofAll")
+                    .addJavadoc("@return adaptors of entities, in a pre-sized list. null if entities is null\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(entityTypeVariableNames)
+                    .returns(list)
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), sub), "entities")
+                    .addCode("if (entities == null) return null;\n")
+                    .addCode("var out = new $T<$T>(entities.size());\n", ArrayList.class, self)
+                    .addCode("for (var e : entities) out.add($T.of(e));\n", raw)
+                    .addCode("return out;")
+                    .build());
+            type.addMethod(MethodSpec.methodBuilder("ofAll")
+                    .addJavadoc("@return adaptors of entities. null if entities is null\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(entityTypeVariableNames)
+                    .returns(list)
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(Stream.class), sub), "entities")
+                    .addCode("return entities == null ? null : entities.<$T>map($T::of).toList();", self, raw)
+                    .build());
+            var array = MethodSpec.methodBuilder("ofAll")
+                    .addJavadoc("@return adaptors of entities. null if entities is null\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(entityTypeVariableNames)
+                    .returns(ArrayTypeName.of(self))
+                    .addParameter(ArrayTypeName.of(e), "entities")
+                    .addCode("if (entities == null) return null;\n");
+            if (isGeneric)
+                array.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                        .addCode("var out = ($T) new $T[entities.length];\n", ArrayTypeName.of(self), raw);
+            else array.addCode("var out = new $T[entities.length];\n", raw);
+            type.addMethod(array
+                    .addCode("for (int i = 0; i < entities.length; i++) out[i] = $T.of(entities[i]);\n", raw)
+                    .addCode("return out;")
+                    .build());
+            type.addMethod(MethodSpec.methodBuilder("viewAll")
+                    .addJavadoc("@return a read-only view of entities, which adapts elements on access. null if entities is null\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(entityTypeVariableNames)
+                    .returns(list)
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), sub), "entities")
+                    .addCode("return $T.listView($T::of, entities);", Projections.class, raw)
+                    .build());
+        }
+
         private TypeSpec.Builder face;
 
 
@@ -295,6 +563,25 @@ public class GeneAdaptor extends BaseFileProcessor {
                             .returns(TypeName.get(entity.asType()))
                             .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
                             .build());
+            face.addMethod(MethodSpec.methodBuilder("unwrap")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC, Modifier.DEFAULT)
+                    .returns(TypeName.get(entity.asType()))
+                    .addCode("return entity();")
+                    .build());
+            face.addMethod(MethodSpec.methodBuilder("of")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addTypeVariables(entityTypeVariableNames)
+                    .returns(isGeneric ? genParamInterfaceName : genInterfaceName)
+                    .addParameter(TypeName.get(entity.asType()), "entity")
+                    .addCode(options.flyweight() == null
+                            ? CodeBlock.of("return () -> entity;")
+                            : CodeBlock.builder()
+                            .add(unwrapNested())
+                            .add("return $T.$L($T.class, entity, x -> () -> x);", Flyweights.class, options.flyweight(), genInterfaceName)
+                            .build())
+                    .build());
+            bulk(face, genInterfaceName, isGeneric ? genParamInterfaceName : genInterfaceName);
             if (mixins != null && !mixins.isEmpty())
                 mixins.forEach(f -> face.addSuperinterface(f));
             return true;
@@ -405,7 +692,12 @@ public class GeneAdaptor extends BaseFileProcessor {
                         return;
                     }
                     var openBracket = new AtomicInteger();
-                    if (!retVoid) {
+                    var memo = memoized(prj);
+                    if (memo != null) {
+                        type.addField(FieldSpec.builder(returnType, memo, Modifier.PRIVATE, Modifier.VOLATILE).build());
+                        code.add("var v$$ = this.$L;\nif (v$$ == null) this.$L = v$$ = ", memo, memo);
+                        writeProject(code, prj.returnTypeMapping(), null, openBracket);
+                    } else if (!retVoid) {
                         code.add("return ");
                         if (prj.returnTypeMapping() != null) {
                             writeProject(code, prj.returnTypeMapping(), null, openBracket);
@@ -426,9 +718,7 @@ public class GeneAdaptor extends BaseFileProcessor {
                             if (i > 0) code.add(",");
                             if (self && p != null) {
                                 if (checkInstance) {
-                                    code.add("v$L instanceOf $T t?t.entity", i, typeName);
-                                    if (isInterfaceType) code.add("()");
-                                    code.add(":");
+                                    code.add("v$L instanceof $T t?t.unwrap():", i, typeName);
                                 }
                                 writeProject(code, p, i, openBracket).add("v$L)", i);
                                 openBracket.decrementAndGet();
@@ -445,10 +735,41 @@ public class GeneAdaptor extends BaseFileProcessor {
                         openBracket.decrementAndGet();
                     }
                     code.add(";");
+                    if (memo != null) code.add("\nreturn v$$;");
                     m.addCode(code.build());
                     type.addMethod(m.build());
                 }
 
+                /**
+                 * a getter is memoized when enabled for a class adaptor, which projects the result of entity method,
+                 * and entity is immutable or the entity method is {@link Mode.ReadOnly}.<br/>
+                 * <b>note:</b> null marks the field as not computed, so a null projected value is never cached and is
+                 * projected again on every call.
+                 *
+                 * @return field name, null if not memoized
+                 */
+                private @Nullable String memoized(ProcUtil.Projection<ExecutableElement> prj) {
+                    if (!options.memoize() || isInterfaceType) return null;
+                    if (prj.returnTypeMapping() == null || !parameters.isEmpty() || !typeVar.isEmpty()) return null;
+                    if (returnType.isPrimitive() || returnType.equals(TypeName.VOID)) return null;
+                    if (!immutable && prj.src().getAnnotation(Mode.ReadOnly.class) == null) return null;
+                    return MEMO_PREFIX + name;
+                }
+
+                /**
+                 * projections change keys or distinct elements (listToSet, mapKey, map) are always eager.
+                 *
+                 * @param eager name of eager projection method
+                 * @return name of view projection method when lazy and exists, else the eager one
+                 */
+                private String projection(String eager) {
+                    if (!options.lazy()) return eager;
+                    return switch (eager) {
+                        case "list", "set", "setToList", "mapValue" -> eager + "View";
+                        default -> eager;
+                    };
+                }
+
                 @SuppressWarnings("unchecked")
                 private CodeBlock.Builder writeProject(CodeBlock.Builder code, ExecutableElement ele,
                                                        Integer pIndex, AtomicInteger openBracket) {
@@ -457,7 +778,7 @@ public class GeneAdaptor extends BaseFileProcessor {
                         switch (s.code) {
                             case CODE_SELF -> {
                                 openBracket.incrementAndGet();
-                                return isInterfaceType
+                                return isInterfaceType && options.flyweight() == null
                                         ? code.add("(($T)()->", typeName)
                                         : code.add("$T.of(", typeName);
                             }
@@ -472,10 +793,10 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.set(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("set"));
                                 } else {
                                     var be = openBracket.get();
-                                    code.add("$T.set(x$L->", be, Projections.class);
+                                    code.add("$T.$L(x$L->", Projections.class, projection("set"), be);
                                     writeProject(code, p, null, openBracket);
                                     code.add("x$L", be);
                                     var af = openBracket.get();
@@ -490,10 +811,10 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.list(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("list"));
                                 } else {
                                     var be = openBracket.get();
-                                    code.add("$T.list(x$L->", Projections.class, be);
+                                    code.add("$T.$L(x$L->", Projections.class, projection("list"), be);
                                     writeProject(code, p, null, openBracket);
                                     var af = openBracket.get();
                                     code.add("x$L", be);
@@ -508,10 +829,10 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.listToSet(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("listToSet"));
                                 } else {
                                     var be = openBracket.get();
-                                    code.add("$T.listToSet(x$L->", Projections.class, be);
+                                    code.add("$T.$L(x$L->", Projections.class, projection("listToSet"), be);
                                     writeProject(code, p, null, openBracket);
                                     var af = openBracket.get();
                                     code.add("x$L", be);
@@ -526,10 +847,10 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.setToList(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("setToList"));
                                 } else {
                                     var be = openBracket.get();
-                                    code.add("$T.setToList(x$L->", Projections.class, be);
+                                    code.add("$T.$L(x$L->", Projections.class, projection("setToList"), be);
                                     writeProject(code, p, null, openBracket);
                                     code.add("x$L", be);
                                     var af = openBracket.get();
@@ -544,9 +865,9 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.mapKey(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("mapKey"));
                                 } else {
-                                    code.add("$T.mapKey(k->", Projections.class);
+                                    code.add("$T.$L(k->", Projections.class, projection("mapKey"));
                                     var be = openBracket.get();
                                     writeProject(code, p, null, openBracket);
                                     var af = openBracket.get();
@@ -562,9 +883,9 @@ public class GeneAdaptor extends BaseFileProcessor {
                                 ExecutableElement p = s.param();
                                 openBracket.incrementAndGet();
                                 if (p == null) {
-                                    return code.add("$T.mapValue(x->x,", Projections.class);
+                                    return code.add("$T.$L(x->x,", Projections.class, projection("mapValue"));
                                 } else {
-                                    code.add("$T.mapValue(v->", Projections.class);
+                                    code.add("$T.$L(v->", Projections.class, projection("mapValue"));
                                     var be = openBracket.get();
                                     writeProject(code, p, null, openBracket);
                                     var af = openBracket.get();
@@ -603,7 +924,7 @@ public class GeneAdaptor extends BaseFileProcessor {
                                     if (v != null) {
                                         code.add("v->");
                                         var be = openBracket.get();
-                                        writeProject(code, k, null, openBracket);
+                                        writeProject(code, v, null, openBracket);
                                         var af = openBracket.get();
                                         code.add("v");
                                         if (af > be) {
@@ -637,6 +958,11 @@ public class GeneAdaptor extends BaseFileProcessor {
                     CODE_MAP_PROJECT,
                 }
 
+                /**
+                 * @param a type of model side
+                 * @param b type of entity side
+                 * @return mapping converts b to a, null if not mappable
+                 */
                 ExecutableElement typeMapping(TypeMirror a, TypeMirror b) {
                     if (a instanceof TypeVariable v) {
                         var name = v.asElement().getSimpleName().toString();
@@ -691,7 +1017,7 @@ public class GeneAdaptor extends BaseFileProcessor {
                             }
                         }
                     }
-                    return mappings.isEmpty() ? null : mappings.get(a, b).orElse(null);
+                    return mappings.isEmpty() ? null : mappings.get(b, a).orElse(null);
                 }
 
 
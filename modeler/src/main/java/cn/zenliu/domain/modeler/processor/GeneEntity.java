@@ -16,16 +16,19 @@
 package cn.zenliu.domain.modeler.processor;
 
 import cn.zenliu.domain.modeler.annotation.Gene;
+import cn.zenliu.domain.modeler.processor.safer.Configurer;
 import cn.zenliu.domain.modeler.processor.safer.Pair;
 import cn.zenliu.domain.modeler.prototype.Meta;
 import com.squareup.javapoet.*;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -106,6 +109,55 @@ public class GeneEntity extends BaseFileProcessor {
         return new Pair<>(type, lookupTypeName(t, name, isGeneric));
     }
 
+    /**
+     * @param self entity type name
+     * @return final implement class with plain fields, null if the entity has abstract methods other than accessors
+     */
+    protected @Nullable TypeSpec makeImpl(boolean isGeneric, Options o, TypeElement t, TypeName self, ProcUtil u) {
+        var raw = self instanceof ParameterizedTypeName p ? p.rawType : (ClassName) self;
+        var name = raw.simpleName();
+        name = name.substring(0, name.length() - Meta.Entity.SUFFIX.length()) + Meta.Entity.IMPL_SUFFIX;
+        var type = TypeSpec.classBuilder(name)
+                .addAnnotation(generated())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(self)
+                // Meta.Object is inherited as a member type
+                .alwaysQualify("Object");
+        if (isGeneric) type.addTypeVariables(t.getTypeParameters().stream().map(TypeVariableName::get).toList());
+        var visitor = new ImplGeneVisitor(u, o, self, raw.peerClass(name), TypeName.get(t.asType()),
+                o.object() || u.isAssignableTo(t.asType(), Meta.ObjectStyleEntity.class));
+        t.accept(visitor, type);
+        var unsupported = visitor.complete(type);
+        if (!unsupported.isEmpty()) {
+            u.warn(this, "{} skip implement for not accessor methods: {}", t, unsupported);
+            return null;
+        }
+        return type.build();
+    }
+
+    /**
+     * @param self entity type name
+     * @return final columnar table class with cursors implement the entity, null if the entity has abstract methods other than accessors
+     */
+    protected @Nullable TypeSpec makeTable(boolean isGeneric, Options o, TypeElement t, TypeName self, ProcUtil u) {
+        var raw = self instanceof ParameterizedTypeName p ? p.rawType : (ClassName) self;
+        var name = raw.simpleName();
+        name = name.substring(0, name.length() - Meta.Entity.SUFFIX.length()) + Meta.Entity.TABLE_SUFFIX;
+        var type = TypeSpec.classBuilder(name)
+                .addAnnotation(generated())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL);
+        if (isGeneric) type.addTypeVariables(t.getTypeParameters().stream().map(TypeVariableName::get).toList());
+        var visitor = new TableGeneVisitor(u, o, self, raw.peerClass(name), TypeName.get(t.asType()),
+                o.object() || u.isAssignableTo(t.asType(), Meta.ObjectStyleEntity.class));
+        t.accept(visitor, type);
+        var unsupported = visitor.complete(type);
+        if (!unsupported.isEmpty()) {
+            u.warn(this, "{} skip table for not accessor methods: {}", t, unsupported);
+            return null;
+        }
+        return type.build();
+    }
+
     protected static final String TARGET = "@Gene.Entity";
 
     @SneakyThrows
@@ -119,23 +171,58 @@ public class GeneEntity extends BaseFileProcessor {
             var isInheritedEntity = u.isAssignableTo(t.asType(), Meta.Entity.class);
             var isGeneric = !t.getTypeParameters().isEmpty();
             var isMutate = isAnnotated(t, Gene.Mutate.class);
+            var o = options(c);
             var pair = isMutate ?
-                    makeInheritMutateType(isGeneric, isInheritedEntity, c.readBoolean(prefix + "object").orElse(false), t)
-                    : makeType(isGeneric, isInheritedEntity, c.readBoolean(prefix + "object").orElse(false), t);
-            return List.of(JavaFile.builder(
-                            u.elements().getPackageOf(ele).getQualifiedName().toString(),
+                    makeInheritMutateType(isGeneric, isInheritedEntity, o.object(), t)
+                    : makeType(isGeneric, isInheritedEntity, o.object(), t);
+            var pkg = u.elements().getPackageOf(ele).getQualifiedName().toString();
+            var entity = JavaFile.builder(pkg,
                             t.accept(new SetterGeneVisitor(u,
-                                            c.readBoolean(prefix + "chain").orElse(false),
-                                            c.readBoolean(prefix + "bean").orElse(true),
+                                            o.chain(),
+                                            o.bean(),
                                             pair.v1()),
                                     pair.v0()).build())
-                    .build());
+                    .build();
+            var files = new ArrayList<JavaFile>();
+            files.add(entity);
+            var impl = o.impl() ? makeImpl(isGeneric, o, t, pair.v1(), u) : null;
+            if (impl != null) files.add(JavaFile.builder(pkg, impl).build());
+            var table = o.table() ? makeTable(isGeneric, o, t, pair.v1(), u) : null;
+            if (table != null) files.add(JavaFile.builder(pkg, table).build());
+            return files;
         }
         u.warn(this, "{} not a valid target of {}", ele, TARGET);
         return null;
     }
 
 
+    /**
+     * @param object use {@link Meta.ObjectStyleEntity}
+     * @param chain  chain style setters
+     * @param bean   only bean style getters
+     * @param impl   generate a final implement class
+     * @param dirty    implement class tracks modified fields
+     * @param snapshot implement class provides copy on write snapshots
+     * @param table    generate a columnar table class
+     */
+    protected record Options(boolean object, boolean chain, boolean bean, boolean impl, boolean dirty, boolean snapshot,
+                             boolean table) {
+    }
+
+    /**
+     * @return options compiled once of each config
+     */
+    protected Options options(Configurer.Config c) {
+        return c.compile(this, x -> new Options(
+                x.readBoolean(prefix + "object").orElse(false),
+                x.readBoolean(prefix + "chain").orElse(false),
+                x.readBoolean(prefix + "bean").orElse(true),
+                x.readBoolean(prefix + "impl").orElse(false),
+                x.readBoolean(prefix + "dirty").orElse(false),
+                x.readBoolean(prefix + "snapshot").orElse(false),
+                x.readBoolean(prefix + "table").orElse(false)));
+    }
+
     @Override
     protected AbstractProcessor self() {
         return this;
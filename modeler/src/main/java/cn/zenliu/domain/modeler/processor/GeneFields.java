@@ -17,7 +17,9 @@ package cn.zenliu.domain.modeler.processor;
 
 import cn.zenliu.domain.modeler.annotation.Gene;
 import cn.zenliu.domain.modeler.annotation.Info;
+import cn.zenliu.domain.modeler.processor.safer.Configurer;
 import cn.zenliu.domain.modeler.prototype.Meta;
+import cn.zenliu.domain.modeler.util.Cases;
 import cn.zenliu.domain.modeler.util.TypeInfo;
 import com.squareup.javapoet.*;
 import org.jetbrains.annotations.ApiStatus;
@@ -28,10 +30,7 @@ import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.StringJoiner;
+import java.util.*;
 
 /**
  * @author Zen.Liu
@@ -78,16 +77,58 @@ public class GeneFields extends BaseFileProcessor {
                         .addMember("value", "$L", b)
                         .build());
             }
+            var o = options(c, u);
+            var visitor = new Visitor(u, c.debug(), o.bean(), o.cases());
+            t.accept(visitor, builder);
+            if (o.ordinal()) visitor.ordinal(builder);
             return List.of(JavaFile.builder(
                             u.elements().getPackageOf(ele).getQualifiedName().toString(),
-                            t.accept(new Visitor(u, c.debug(), c.readBoolean(prefix + "bean").orElse(true)), builder)
-                                    .build())
+                            builder.build())
                     .build());
         }
         u.warn("{} not a valid target of {}", ele.toString(), TARGET);
         return null;
     }
 
+    /**
+     * @param bean    only bean style getters
+     * @param ordinal generate ordinal switch
+     * @param cases   extra case styles of name constants
+     */
+    protected record Options(boolean bean, boolean ordinal, List<Cases.Type> cases) {
+    }
+
+    /**
+     * @return options compiled once of each config
+     */
+    protected Options options(Configurer.Config c, ProcUtil u) {
+        return c.compile(this, x -> new Options(
+                x.readBoolean(prefix + "bean").orElse(true),
+                x.readBoolean(prefix + "ordinal").orElse(false),
+                List.copyOf(cases(x, u))));
+    }
+
+    /**
+     * @return configured extra case styles of name constants, in declared order.
+     */
+    protected List<Cases.Type> cases(Configurer.Config c, ProcUtil u) {
+        var v = c.readString(prefix + "cases").orElse("");
+        if (v.isBlank()) return List.of();
+        var out = new ArrayList<Cases.Type>();
+        for (var x : v.split(",")) {
+            var n = x.trim().toUpperCase();
+            if (n.isEmpty()) continue;
+            try {
+                var t = Cases.Type.valueOf(n);
+                if (t != Cases.Type.UNKNOWN && !out.contains(t)) out.add(t);
+                else if (t == Cases.Type.UNKNOWN) u.mandatoryWarn(this, "ignore invalid case type {} of {}cases", x, prefix);
+            } catch (IllegalArgumentException e) {
+                u.mandatoryWarn(this, "ignore invalid case type {} of {}cases", x, prefix);
+            }
+        }
+        return out;
+    }
+
     @Override
     protected AbstractProcessor self() {
         return this;
@@ -95,11 +136,62 @@ public class GeneFields extends BaseFileProcessor {
 
     static class Visitor extends BaseMethodVisitor<TypeSpec.Builder> {
         private final boolean debug;
+        private final List<Cases.Type> cases;
+        /**
+         * field names by getter, which ordered by source for ordinals.
+         */
+        private final Map<ExecutableElement, String> names = new LinkedHashMap<>();
 
 
-        Visitor(ProcUtil u, boolean debug, boolean beanOnly) {
+        Visitor(ProcUtil u, boolean debug, boolean beanOnly, List<Cases.Type> cases) {
             super(beanOnly, u);
             this.debug = debug;
+            this.cases = cases;
+        }
+
+        /**
+         * add case style name constants of field.
+         */
+        void caseNames(String n, TypeSpec.Builder builder) {
+            for (var c : cases) {
+                builder.addField(declareStaticFinalField(String.class, n.toUpperCase() + "_" + c.name())
+                        .initializer("$S", Cases.to(c, n).toString())
+                        .build());
+            }
+        }
+
+        /**
+         * add a static name to ordinal switch, which accepts field name or any of the case style names.
+         */
+        void ordinal(TypeSpec.Builder builder) {
+            var code = CodeBlock.builder().add("return switch (name) {\n").indent();
+            var seen = new HashSet<String>();
+            // ordinals follow the source order, never the emitting order of reproducible mode
+            var getters = u.sourceOrdered(u.typeElementOf(root), names.keySet());
+            for (int i = 0; i < getters.size(); i++) {
+                var n = names.get(getters.get(i));
+                var labels = new ArrayList<String>();
+                if (seen.add(n)) labels.add(n);
+                for (var c : cases) {
+                    var v = Cases.to(c, n).toString();
+                    if (seen.add(v)) labels.add(v);
+                }
+                if (labels.isEmpty()) continue;
+                code.add("case ");
+                for (int j = 0; j < labels.size(); j++) {
+                    if (j > 0) code.add(", ");
+                    code.add("$S", labels.get(j));
+                }
+                code.add(" -> $L;\n", i);
+            }
+            code.add("default -> -1;\n").unindent().add("};\n");
+            builder.addMethod(MethodSpec.methodBuilder(Meta.Fields.ORDINAL_METHOD)
+                    .addJavadoc("@return ordinal of field name, -1 if not a field\n")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .returns(int.class)
+                    .addParameter(String.class, "name")
+                    .addCode(code.build())
+                    .build());
         }
 
         @Override
@@ -120,6 +212,8 @@ public class GeneFields extends BaseFileProcessor {
                 return builder;
             }
             u.other("Generate Field from Object method: {}", e);
+            names.put(e, n);
+            caseNames(n, builder);
             var ret = e.getReturnType();
             var typeName = u.toTypeName(ret);
             TypeInfo info = null;
@@ -16,6 +16,7 @@
 package cn.zenliu.domain.modeler.processor;
 
 import cn.zenliu.domain.modeler.annotation.Gene;
+import cn.zenliu.domain.modeler.processor.safer.Configurer;
 import cn.zenliu.domain.modeler.processor.safer.Pair;
 import cn.zenliu.domain.modeler.prototype.Meta;
 import com.squareup.javapoet.JavaFile;
@@ -79,13 +80,14 @@ public class GeneMutate extends BaseFileProcessor {
             if (notDirectInherit(u, TARGET, t, Meta.Entity.class)) return null;
             if (!mustInheritOneOf(u, TARGET, t, Meta.Object.class, Meta.Trait.class)) return null;
             var pair = makeType(!t.getTypeParameters().isEmpty(), u.isAssignableTo(t.asType(), Meta.Trait.class), t);
+            var o = options(c);
             return List.of(
                     JavaFile.builder(
                                     u.elements().getPackageOf(ele).getQualifiedName().toString(),
                                     t.accept(new SetterGeneVisitor(
                                                             u,
-                                                            c.readBoolean(prefix + "chain").orElse(false),
-                                                            c.readBoolean(prefix + "bean").orElse(true),
+                                                            o.chain(),
+                                                            o.bean(),
                                                             pair.v1()),
                                                     pair.v0())
                                             .build())
@@ -96,6 +98,22 @@ public class GeneMutate extends BaseFileProcessor {
         return null;
     }
 
+    /**
+     * @param chain chain style setters
+     * @param bean  only bean style getters
+     */
+    protected record Options(boolean chain, boolean bean) {
+    }
+
+    /**
+     * @return options compiled once of each config
+     */
+    protected Options options(Configurer.Config c) {
+        return c.compile(this, x -> new Options(
+                x.readBoolean(prefix + "chain").orElse(false),
+                x.readBoolean(prefix + "bean").orElse(true)));
+    }
+
     @Override
     protected AbstractProcessor self() {
         return this;
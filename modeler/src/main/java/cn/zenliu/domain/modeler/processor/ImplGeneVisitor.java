@@ -0,0 +1,573 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor;
+
+import cn.zenliu.domain.modeler.annotation.Mark;
+import cn.zenliu.domain.modeler.prototype.Meta;
+import cn.zenliu.domain.modeler.util.EntityBatch;
+import com.squareup.javapoet.*;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import java.util.*;
+
+/**
+ * Collects getters of an entity, then completes a final implement class with plain fields,
+ * constructors, accessors and equals/hashCode of {@link Mark.Unique} fields.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-29
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public class ImplGeneVisitor extends BaseMethodVisitor<TypeSpec.Builder> {
+    protected final boolean chain;
+    protected final TypeName self;
+    protected final ClassName impl;
+    protected final boolean dirty;
+    protected final boolean object;
+    protected final boolean snapshot;
+    protected final TypeName model;
+    /**
+     * properties in declared order, keyed by field name.
+     */
+    protected final Map<String, Property> properties = new LinkedHashMap<>();
+    /**
+     * abstract methods which are not getters.
+     */
+    protected final List<ExecutableElement> others = new ArrayList<>();
+    /**
+     * setters declared by model, resolved from others.
+     */
+    protected final Map<Property, ExecutableElement> declared = new LinkedHashMap<>();
+
+    /**
+     * @param field    field name
+     * @param type     resolved field type
+     * @param getter   getter method
+     * @param setter   setter name, null if not settable
+     * @param readOnly getter is read only, which no setter generated
+     * @param unique   marked as unique
+     */
+    protected record Property(String field, TypeName type, ExecutableElement getter, @Nullable String setter,
+                              boolean readOnly, boolean unique) {
+    }
+
+    /**
+     * @param o      options, dirty tracks modified fields as {@link Meta.Tracked}, snapshot implements {@link Meta.Snapshot}
+     * @param self   entity type name
+     * @param impl   implement class name
+     * @param model  model type name, which snapshot implements
+     * @param object implements {@link Meta.ObjectStyleEntity} by {@link EntityBatch}
+     */
+    ImplGeneVisitor(ProcUtil u, GeneEntity.Options o, TypeName self, ClassName impl, TypeName model, boolean object) {
+        super(o.bean(), u);
+        this.chain = o.chain();
+        this.dirty = o.dirty();
+        this.snapshot = o.snapshot();
+        this.self = self;
+        this.impl = impl;
+        this.model = model;
+        this.object = object;
+    }
+
+    @Override
+    public TypeSpec.Builder visitExecutable(ExecutableElement e, TypeSpec.Builder builder) {
+        if (notInstanceMethod(e) || isObjectMethod(e) || object && u.isDeclaredBy(e, Meta.ObjectStyleEntity.class)) return builder;
+        var n = notGetterLikeMethod(e) || !e.getTypeParameters().isEmpty() || isMeta(e) ? null : u.getterToField(e.getSimpleName(), beanStyle);
+        if (n == null) {
+            others.add(e);
+            return builder;
+        }
+        if (properties.containsKey(n)) return builder;
+        if (!SourceVersion.isName(n)) n = n + "$";
+        var type = u.resolveTypeName(e.getReturnType(), e, u.typeElementOf(root));
+        var unique = e.getAnnotation(Mark.Unique.class) != null;
+        properties.put(n, new Property(n, type, e, toSetterName(e), isReadyOnly(e), unique));
+        return builder;
+    }
+
+    private boolean isMeta(ExecutableElement e) {
+        return u.isDeclaredBy(e, Meta.ObjectStyleEntity.class) || u.isDeclaredBy(e, Meta.Entity.class);
+    }
+
+    /**
+     * @return properties in declared order
+     */
+    public List<Property> properties() {
+        return List.copyOf(properties.values());
+    }
+
+    /**
+     * order properties by source and resolve declared setters from others after visited.
+     *
+     * @return abstract methods which can't be implemented
+     */
+    protected List<ExecutableElement> resolve() {
+        // ordinals of properties follow the source order, never the emitting order of reproducible mode
+        var byGetter = new HashMap<ExecutableElement, Property>();
+        for (var p : properties.values()) byGetter.put(p.getter(), p);
+        properties.clear();
+        for (var g : u.sourceOrdered(u.typeElementOf(root), byGetter.keySet())) {
+            var p = byGetter.get(g);
+            properties.put(p.field(), p);
+        }
+        var setters = new HashMap<String, Property>();
+        for (var p : properties.values()) if (p.setter() != null) setters.put(p.setter(), p);
+        var unsupported = new ArrayList<ExecutableElement>();
+        for (var e : others) {
+            var p = e.getParameters().size() == 1 ? setters.get(e.getSimpleName().toString()) : null;
+            if (p == null) unsupported.add(e);
+            else declared.putIfAbsent(p, e);
+        }
+        return unsupported;
+    }
+
+    /**
+     * complete the implement class after visited.
+     *
+     * @param builder class builder
+     * @return abstract methods which can't be implemented, the class is completed only when empty.
+     */
+    public List<ExecutableElement> complete(TypeSpec.Builder builder) {
+        var unsupported = resolve();
+        if (!unsupported.isEmpty()) return unsupported;
+        if (snapshot) collections();
+        var re = u.typeElementOf(root);
+        var all = MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC);
+        var ordinal = 0;
+        for (var p : properties.values()) {
+            var i = ordinal++;
+            builder.addField(FieldSpec.builder(p.type(), p.field(), Modifier.PRIVATE).build());
+            all.addParameter(p.type(), p.field()).addStatement("this.$N = $L", p.field(), copy(p, p.field()));
+            builder.addMethod(MethodSpec.methodBuilder(p.getter().getSimpleName().toString())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(p.type())
+                    .addCode(escape(p))
+                    .addStatement("return $N", p.field())
+                    .build());
+            var d = declared.get(p);
+            if (d != null) {
+                var ret = u.resolveTypeName(d.getReturnType(), d, re);
+                var m = MethodSpec.methodBuilder(p.setter())
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(u.resolveTypeName(d.getParameters().get(0).asType(), d, re), "v")
+                        .returns(ret)
+                        .addCode(assign(p, i));
+                if (!ret.equals(TypeName.VOID)) m.addStatement("return this");
+                builder.addMethod(m.build());
+            } else if (!p.readOnly() && p.setter() != null) {
+                var m = MethodSpec.methodBuilder(p.setter())
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(p.type(), "v")
+                        .addCode(assign(p, i));
+                if (chain) m.returns(self).addStatement("return this");
+                builder.addMethod(m.build());
+            }
+        }
+        builder.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).build());
+        if (!properties.isEmpty()) {
+            if (dirty) all.addCode(allDirty());
+            builder.addMethod(all.build());
+        }
+        if (dirty) tracked(builder);
+        if (object) objectStyle(builder);
+        if (snapshot) snapshot(builder, declared.values());
+        equality(builder);
+        return List.of();
+    }
+
+    /**
+     * @param i ordinal of property
+     * @return assign parameter 'v' to the field, which marks the field as modified only when value changed if tracked.
+     */
+    protected CodeBlock assign(Property p, int i) {
+        if (!dirty) return CodeBlock.builder().addStatement("this.$N = $L", p.field(), copy(p, "v")).add(invalidate(p)).build();
+        var c = CodeBlock.builder()
+                .beginControlFlow("if ($L)", notEqual(p.field(), "v", p.type()))
+                .addStatement("this.$N = $L", p.field(), copy(p, "v"))
+                .add(invalidate(p));
+        if (properties.size() <= Long.SIZE) c.addStatement("this.$N |= $L", DIRTY, mask(i));
+        else c.addStatement("this.$N[$L] |= $L", DIRTY, i >>> 6, mask(i));
+        return c.endControlFlow().build();
+    }
+
+    //region Snapshot
+    /**
+     * field of cached snapshot, which is dropped on any change.
+     */
+    protected static final String SNAPSHOT = "snapshot$";
+    /**
+     * field of bits of collections shared with the snapshot, which are copied before handed out for modification.
+     */
+    protected static final String SHARED = "shared$";
+    /**
+     * field of bits of collections handed out by getters, which may be modified in place, so copied into snapshots.
+     */
+    protected static final String ESCAPED = "escaped$";
+    /**
+     * copy constructors of collection types, keyed by raw type name
+     */
+    protected static final Map<String, Class<?>> COPIES = Map.of(
+            List.class.getCanonicalName(), ArrayList.class,
+            Collection.class.getCanonicalName(), ArrayList.class,
+            Set.class.getCanonicalName(), LinkedHashSet.class,
+            Map.class.getCanonicalName(), LinkedHashMap.class);
+    /**
+     * read-only views of collection types, keyed by raw type name
+     */
+    protected static final Map<String, String> VIEWS = Map.of(
+            List.class.getCanonicalName(), "unmodifiableList",
+            Collection.class.getCanonicalName(), "unmodifiableCollection",
+            Set.class.getCanonicalName(), "unmodifiableSet",
+            Map.class.getCanonicalName(), "unmodifiableMap");
+    /**
+     * bit of collection and array properties
+     */
+    private final Map<Property, Integer> collections = new LinkedHashMap<>();
+    /**
+     * bits of collection properties, which can be shared with the snapshot
+     */
+    private long shareable;
+    /**
+     * any collection or array property out of bits, which snapshot is never cached.
+     */
+    private boolean untracked;
+
+    private static String raw(TypeName t) {
+        return (t instanceof ParameterizedTypeName p ? p.rawType : t).toString();
+    }
+
+    private static boolean isCollection(Property p) {
+        return COPIES.containsKey(raw(p.type()));
+    }
+
+    private void collections() {
+        for (var p : properties.values()) {
+            if (!isCollection(p) && !(p.type() instanceof ArrayTypeName)) continue;
+            if (collections.size() == Long.SIZE) {
+                untracked = true;
+                continue;
+            }
+            if (isCollection(p)) shareable |= 1L << collections.size();
+            collections.put(p, collections.size());
+        }
+    }
+
+    /**
+     * @return drop the cached snapshot, the collection is no more shared or handed out
+     */
+    protected CodeBlock invalidate(Property p) {
+        if (!snapshot) return CodeBlock.of("");
+        var c = CodeBlock.builder().addStatement("this.$N = null", SNAPSHOT);
+        var bit = collections.get(p);
+        if (bit != null) {
+            if (isCollection(p)) c.addStatement("this.$N &= ~$L", SHARED, mask(bit));
+            c.addStatement("this.$N &= ~$L", ESCAPED, mask(bit));
+        }
+        return c.build();
+    }
+
+    /**
+     * @param v the assigned value
+     * @return a copy of the collection or array assigned by constructor or setter, so the caller can't modify the
+     * entity behind the cached snapshot.
+     */
+    protected CodeBlock copy(Property p, String v) {
+        if (!snapshot) return CodeBlock.of("$N", v);
+        if (p.type() instanceof ArrayTypeName) return CodeBlock.of("$N == null ? null : $N.clone()", v, v);
+        if (!isCollection(p)) return CodeBlock.of("$N", v);
+        return CodeBlock.of("$N == null ? null : new $T<>($N)", v, COPIES.get(raw(p.type())), v);
+    }
+
+    /**
+     * @return copy the collection shared with snapshot before returned, then mark it as escaped,
+     * as collections and arrays may be modified in place through the returned reference.
+     */
+    protected CodeBlock escape(Property p) {
+        var bit = collections.get(p);
+        if (bit == null) return CodeBlock.of("");
+        var c = CodeBlock.builder();
+        if (isCollection(p))
+            c.beginControlFlow("if (($N & $L) != 0L)", SHARED, mask(bit))
+                    .addStatement("this.$N &= ~$L", SHARED, mask(bit))
+                    .addStatement("if ($N != null) $N = new $T<>($N)", p.field(), p.field(), COPIES.get(raw(p.type())), p.field())
+                    .endControlFlow();
+        return c.addStatement("this.$N |= $L", ESCAPED, mask(bit)).build();
+    }
+
+    /**
+     * implements {@link Meta.Snapshot} by a nested immutable class holds the fields. collections are shared as read-only
+     * views, escaped ones (and ones out of bits) are copied before shared, arrays are cloned in and out.<br/>
+     * the snapshot is cached until any field assigned or any collection or array escaped.
+     *
+     * @param setters setters declared by model, which are unsupported by the snapshot
+     */
+    protected void snapshot(TypeSpec.Builder builder, Collection<ExecutableElement> setters) {
+        var frozen = impl.nestedClass("Frozen");
+        var vars = self instanceof ParameterizedTypeName p ? p.typeArguments : List.<TypeName>of();
+        var frozenType = vars.isEmpty() ? frozen : ParameterizedTypeName.get(frozen, vars.toArray(TypeName[]::new));
+        var type = TypeSpec.classBuilder(frozen)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(model);
+        for (var v : vars) type.addTypeVariable((TypeVariableName) v);
+        var ctor = MethodSpec.constructorBuilder();
+        var args = CodeBlock.builder();
+        for (var p : properties.values()) {
+            type.addField(FieldSpec.builder(p.type(), p.field(), Modifier.PRIVATE, Modifier.FINAL).build());
+            ctor.addParameter(p.type(), p.field());
+            var getter = MethodSpec.methodBuilder(p.getter().getSimpleName().toString())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(p.type());
+            var view = VIEWS.get(raw(p.type()));
+            var bit = collections.get(p);
+            if (p.type() instanceof ArrayTypeName) {
+                ctor.addStatement("this.$N = $N == null ? null : $N.clone()", p.field(), p.field(), p.field());
+                getter.addStatement("return $N == null ? null : $N.clone()", p.field(), p.field());
+            } else if (view != null) {
+                var copy = bit == null
+                        ? CodeBlock.of("new $T<>($N)", COPIES.get(raw(p.type())), p.field())
+                        : CodeBlock.of("(copies$$ & $L) != 0L ? new $T<>($N) : $N", mask(bit), COPIES.get(raw(p.type())), p.field(), p.field());
+                ctor.addStatement("this.$N = $N == null ? null : $T.$L($L)", p.field(), p.field(), Collections.class, view, copy);
+                getter.addStatement("return $N", p.field());
+            } else {
+                ctor.addStatement("this.$N = $N", p.field(), p.field());
+                getter.addStatement("return $N", p.field());
+            }
+            if (!args.isEmpty()) args.add(", ");
+            args.add("$N", p.field());
+            type.addMethod(getter.build());
+        }
+        if (shareable != 0L) {
+            ctor.addParameter(long.class, "copies$");
+            args.add(args.isEmpty() ? "$N" : ", $N", ESCAPED);
+        }
+        var re = u.typeElementOf(root);
+        for (var d : setters) {
+            type.addMethod(MethodSpec.methodBuilder(d.getSimpleName().toString())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(u.resolveTypeName(d.getParameters().get(0).asType(), d, re), "v")
+                    .returns(u.resolveTypeName(d.getReturnType(), d, re))
+                    .addStatement("throw new $T($S)", UnsupportedOperationException.class, "snapshot is read only")
+                    .build());
+        }
+        if (u.isAssignableTo(root, Meta.ObjectStyleEntity.class)) {
+            type.addMethod(MethodSpec.methodBuilder("save")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addStatement("throw new $T($S)", UnsupportedOperationException.class, "snapshot is read only")
+                    .build());
+            type.addMethod(MethodSpec.methodBuilder("delete")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(boolean.class)
+                    .addStatement("throw new $T($S)", UnsupportedOperationException.class, "snapshot is read only")
+                    .build());
+        }
+        builder.addType(type.addMethod(ctor.build()).build())
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Meta.Snapshot.class), model))
+                .addField(FieldSpec.builder(frozenType, SNAPSHOT, Modifier.PRIVATE, Modifier.TRANSIENT).build());
+        if (!collections.isEmpty()) {
+            builder.addField(FieldSpec.builder(long.class, SHARED, Modifier.PRIVATE, Modifier.TRANSIENT).build());
+            builder.addField(FieldSpec.builder(long.class, ESCAPED, Modifier.PRIVATE, Modifier.TRANSIENT).build());
+        }
+        var m = MethodSpec.methodBuilder("snapshot")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(model);
+        var create = CodeBlock.of("new $T$L($L)", frozen, vars.isEmpty() ? "" : "<>", args.build());
+        if (untracked) m.addStatement("var s = $L", create);
+        else {
+            m.addStatement("var s = this.$N", SNAPSHOT);
+            // escaped collections or arrays may be modified in place since the cached one
+            if (collections.isEmpty()) m.beginControlFlow("if (s == null)");
+            else m.beginControlFlow("if (s == null || this.$N != 0L)", ESCAPED);
+            m.addStatement("this.$N = s = $L", SNAPSHOT, create);
+        }
+        // escaped collections are copied into the snapshot, the others are shared until modified
+        if (shareable != 0L) m.addStatement("this.$N = 0x$LL & ~this.$N", SHARED, Long.toHexString(shareable), ESCAPED);
+        if (!untracked) m.endControlFlow();
+        builder.addMethod(m.addStatement("return s").build());
+    }
+    //endregion
+
+    private static String mask(int i) {
+        return "0x" + Long.toHexString(1L << (i & 63)) + "L";
+    }
+
+    /**
+     * field of modified bits, a long[] for entity has more than 64 fields.
+     */
+    protected static final String DIRTY = "dirty$";
+
+    /**
+     * @return mark all fields as modified, for the all arguments constructor
+     */
+    protected CodeBlock allDirty() {
+        var n = properties.size();
+        if (n <= Long.SIZE)
+            return CodeBlock.of("this.$N = 0x$LL;\n", DIRTY, Long.toHexString(n == Long.SIZE ? -1L : (1L << n) - 1));
+        var c = CodeBlock.builder();
+        for (int w = 0; w < (n + 63) >>> 6; w++) {
+            var bits = n - (w << 6);
+            c.addStatement("this.$N[$L] = 0x$LL", DIRTY, w, Long.toHexString(bits >= Long.SIZE ? -1L : (1L << bits) - 1));
+        }
+        return c.build();
+    }
+
+    /**
+     * implements {@link Meta.Tracked}, only assignments are tracked, collections modified in place are not.
+     */
+    protected void tracked(TypeSpec.Builder builder) {
+        var wide = properties.size() > Long.SIZE;
+        builder.addSuperinterface(Meta.Tracked.class);
+        var names = CodeBlock.builder();
+        for (var p : properties.values()) {
+            if (!names.isEmpty()) names.add(", ");
+            names.add("$S", u.getterToField(p.getter().getSimpleName(), beanStyle));
+        }
+        builder.addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "FIELD_NAMES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$T.of($L)", List.class, names.build())
+                .build());
+        if (wide) builder.addField(FieldSpec.builder(long[].class, DIRTY, Modifier.PRIVATE, Modifier.TRANSIENT)
+                .initializer("new long[$L]", (properties.size() + 63) >>> 6)
+                .build());
+        else builder.addField(FieldSpec.builder(long.class, DIRTY, Modifier.PRIVATE, Modifier.TRANSIENT).build());
+        builder.addMethod(MethodSpec.methodBuilder("fieldNames")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(ParameterizedTypeName.get(List.class, String.class))
+                .addStatement("return FIELD_NAMES")
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("dirtyFields")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(BitSet.class)
+                .addStatement(wide ? "return $T.valueOf($N)" : "return $T.valueOf(new long[]{$N})", BitSet.class, DIRTY)
+                .build());
+        var isDirty = MethodSpec.methodBuilder("isDirty")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(boolean.class);
+        if (wide) isDirty.addStatement("for (var x : $N) if (x != 0L) return true", DIRTY).addStatement("return false");
+        else isDirty.addStatement("return $N != 0L", DIRTY);
+        builder.addMethod(isDirty.build());
+        builder.addMethod(MethodSpec.methodBuilder("clearDirty")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addCode(wide ? CodeBlock.of("$T.fill($N, 0L);\n", Arrays.class, DIRTY) : CodeBlock.of("this.$N = 0L;\n", DIRTY))
+                .build());
+    }
+
+    /**
+     * save and delete as the transactional ones with the opened {@link EntityBatch} of current thread, which queue into
+     * the batch, or keep the behaviour of {@link Meta.ObjectStyleEntity#save(java.lang.Object)} when none opened.
+     */
+    protected void objectStyle(TypeSpec.Builder builder) {
+        builder.addMethod(MethodSpec.methodBuilder("save")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("save($T.current())", EntityBatch.class)
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("delete")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(boolean.class)
+                .addStatement("return delete($T.current())", EntityBatch.class)
+                .build());
+    }
+
+    /**
+     * @return unique properties, by the type level {@link Mark.Unique} or the marked getters.
+     */
+    protected List<Property> uniques() {
+        var t = u.typeElementOf(root);
+        var a = t.getAnnotation(Mark.Unique.class);
+        if (a != null && a.value().length > 0) {
+            var out = new ArrayList<Property>();
+            for (var n : a.value()) {
+                var p = properties.get(n);
+                if (p == null) u.warn("{} unique field {} not found", t, n);
+                else out.add(p);
+            }
+            return out;
+        }
+        return properties.values().stream().filter(Property::unique).toList();
+    }
+
+    /**
+     * equals and hashCode of unique properties, identity is kept when none.
+     */
+    protected void equality(TypeSpec.Builder builder) {
+        var uniques = uniques();
+        if (uniques.isEmpty()) return;
+        var typed = self instanceof ParameterizedTypeName p
+                ? ParameterizedTypeName.get(impl, p.typeArguments.stream().map(x -> WildcardTypeName.subtypeOf(Object.class)).toArray(TypeName[]::new))
+                : impl;
+        var eq = CodeBlock.builder();
+        var hash = CodeBlock.builder().addStatement("int h = 1");
+        for (int i = 0; i < uniques.size(); i++) {
+            var p = uniques.get(i);
+            if (i > 0) eq.add("\n&& ");
+            eq.add(equal(p.field(), "x." + p.field(), p.type()));
+            hash.addStatement("h = 31 * h + $L", hash(p.field(), p.type()));
+        }
+        builder.addMethod(MethodSpec.methodBuilder("equals")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(boolean.class)
+                .addParameter(Object.class, "o")
+                .addStatement("if (this == o) return true")
+                .addStatement("if (!(o instanceof $T x)) return false", typed)
+                .addStatement("return $L", eq.build())
+                .build());
+        builder.addMethod(MethodSpec.methodBuilder("hashCode")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addCode(hash.build())
+                .addStatement("return h")
+                .build());
+    }
+
+    static CodeBlock equal(String a, String b, TypeName t) {
+        if (t.equals(TypeName.FLOAT) || t.equals(TypeName.DOUBLE))
+            return CodeBlock.of("$T.compare($L, $L) == 0", t.box(), a, b);
+        if (t.isPrimitive()) return CodeBlock.of("$L == $L", a, b);
+        if (t instanceof ArrayTypeName) return CodeBlock.of("$T.equals($L, $L)", Arrays.class, a, b);
+        return CodeBlock.of("$T.equals($L, $L)", Objects.class, a, b);
+    }
+
+    static CodeBlock notEqual(String a, String b, TypeName t) {
+        if (t.equals(TypeName.FLOAT) || t.equals(TypeName.DOUBLE))
+            return CodeBlock.of("$T.compare($L, $L) != 0", t.box(), a, b);
+        if (t.isPrimitive()) return CodeBlock.of("$L != $L", a, b);
+        return CodeBlock.of("!$L", equal(a, b, t));
+    }
+
+    static CodeBlock hash(String f, TypeName t) {
+        if (t.isPrimitive()) return CodeBlock.of("$T.hashCode($N)", t.box(), f);
+        if (t instanceof ArrayTypeName) return CodeBlock.of("$T.hashCode($N)", Arrays.class, f);
+        return CodeBlock.of("$T.hashCode($N)", Objects.class, f);
+    }
+}
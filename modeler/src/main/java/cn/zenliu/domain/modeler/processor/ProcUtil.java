@@ -301,11 +301,13 @@ public interface ProcUtil extends BaseProcUtil {
     //region Types
 
     default TypeMirror typeOf(String fqn) {
-        return elements().getTypeElement(fqn).asType();
+        var c = cache();
+        var e = c == null ? elements().getTypeElement(fqn) : c.typeElement(fqn, elements()::getTypeElement);
+        return e.asType();
     }
 
     default TypeMirror typeOf(Class<?> type) {
-        return elements().getTypeElement(type.getCanonicalName()).asType();
+        return typeOf(type.getCanonicalName());
     }
 
     default TypeElement typeElementOf(TypeMirror type) {
@@ -313,6 +315,8 @@ public interface ProcUtil extends BaseProcUtil {
     }
 
     default TypeElement typeElementOf(String qualifiedName) {
+        var c = cache();
+        if (c != null) return Objects.requireNonNull(c.typeElement(qualifiedName, elements()::getTypeElement), qualifiedName);
         return typeElementOf(typeOf(qualifiedName));
     }
 
@@ -334,6 +338,9 @@ public interface ProcUtil extends BaseProcUtil {
             if (t1 == null) return false;
             return t1.getQualifiedName().toString().equals(type2.getCanonicalName());
         }
+        var c = cache();
+        if (c != null)
+            return c.assignable(type1, type2.getCanonicalName(), () -> types().isAssignable(type1, typeOf(type2)));
         return types().isAssignable(type1, typeOf(type2));
     }
 
@@ -441,9 +448,42 @@ public interface ProcUtil extends BaseProcUtil {
     }
 
     default List<? extends Element> allMembers(TypeElement e) {
+        var c = cache();
+        if (c != null) return c.members(e, elements()::getAllMembers);
         return elements().getAllMembers(e);
     }
 
+    /**
+     * @return all members, which are sorted by kind, name and signature in reproducible mode, only for emitting order.
+     * @see #isReproducible()
+     * @see #sourceOrdered(TypeElement, Collection)
+     */
+    default List<? extends Element> orderedMembers(TypeElement e) {
+        var m = allMembers(e);
+        if (!isReproducible()) return m;
+        var l = new ArrayList<Element>(m);
+        l.sort(Comparator.<Element, ElementKind>comparing(Element::getKind)
+                .thenComparing(x -> x.getSimpleName().toString())
+                .thenComparing(x -> x.asType().toString())
+                .thenComparing(x -> x.getEnclosingElement().toString()));
+        return l;
+    }
+
+    /**
+     * @param type    the type declares or inherits members
+     * @param members members of type
+     * @return members in source order of {@link #allMembers(TypeElement)}, which never depends on reproducible mode,
+     * such as the ordinals of fields.
+     */
+    default <E extends Element> List<E> sourceOrdered(TypeElement type, Collection<E> members) {
+        var all = allMembers(type);
+        var index = new HashMap<Element, Integer>();
+        for (int i = 0; i < all.size(); i++) index.putIfAbsent(all.get(i), i);
+        var l = new ArrayList<>(members);
+        l.sort(Comparator.comparingInt(x -> index.getOrDefault(x, Integer.MAX_VALUE)));
+        return l;
+    }
+
     default List<? extends AnnotationMirror> allAnnotationMirrors(TypeElement e) {
         return elements().getAllAnnotationMirrors(e);
     }
@@ -643,6 +683,12 @@ public interface ProcUtil extends BaseProcUtil {
     }
 
     default Map<String, TypeMirror> resolveTypeParameters(TypeElement type) {
+        var c = cache();
+        if (c != null) return c.parameters(type, this::typeParameters);
+        return typeParameters(type);
+    }
+
+    private Map<String, TypeMirror> typeParameters(TypeElement type) {
         var m = new HashMap<String, TypeMirror>();
         for (var t : type.getTypeParameters()) {
             m.put(t.getSimpleName().toString(), t.asType());
@@ -758,7 +804,7 @@ public interface ProcUtil extends BaseProcUtil {
                         .build())
                 .toList();
         var returns = TypeName.get(e.getReturnType());
-        var modifiers = new HashSet<>(e.getModifiers());
+        var modifiers = e.getModifiers().isEmpty() ? EnumSet.noneOf(Modifier.class) : EnumSet.copyOf(e.getModifiers());
         modifiers.remove(Modifier.ABSTRACT);
         modifiers.remove(Modifier.DEFAULT);
 
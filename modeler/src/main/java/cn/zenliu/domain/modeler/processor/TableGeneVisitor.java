@@ -0,0 +1,248 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor;
+
+import com.squareup.javapoet.*;
+import org.jetbrains.annotations.ApiStatus;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Completes a columnar table of an entity: one array per field, with a flyweight cursor implements the entity.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-30
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public class TableGeneVisitor extends ImplGeneVisitor {
+    /**
+     * name of row cursor class
+     */
+    protected static final String CURSOR = "Cursor";
+
+    /**
+     * @param table table class name
+     */
+    TableGeneVisitor(ProcUtil u, GeneEntity.Options o, TypeName self, ClassName table, TypeName model, boolean object) {
+        super(u, o, self, table, model, object);
+    }
+
+    /**
+     * @return column can be a typed array, else it is an Object[]
+     */
+    protected static boolean typed(TypeName t) {
+        if (t instanceof ArrayTypeName a) t = a.componentType;
+        return t.isPrimitive() || t instanceof ClassName;
+    }
+
+    protected static TypeName column(TypeName t) {
+        return typed(t) ? ArrayTypeName.of(t) : ArrayTypeName.of(Object.class);
+    }
+
+    /**
+     * @return allocate a column of capacity
+     */
+    protected static CodeBlock allocate(TypeName t) {
+        if (!typed(t)) return CodeBlock.of("new $T[capacity]", Object.class);
+        var dims = "";
+        while (t instanceof ArrayTypeName a) {
+            t = a.componentType;
+            dims += "[]";
+        }
+        return CodeBlock.of("new $T[capacity]$L", t, dims);
+    }
+
+    /**
+     * @return read a cell of column
+     */
+    protected static CodeBlock read(Property p, String table, String row) {
+        return typed(p.type())
+                ? CodeBlock.of("$L$N[$L]", table, p.field(), row)
+                : CodeBlock.of("($T) $L$N[$L]", p.type(), table, p.field(), row);
+    }
+
+    @Override
+    public List<ExecutableElement> complete(TypeSpec.Builder builder) {
+        var unsupported = resolve();
+        if (!unsupported.isEmpty()) return unsupported;
+        var vars = self instanceof ParameterizedTypeName p ? p.typeArguments : List.<TypeName>of();
+        var tableType = vars.isEmpty() ? impl : ParameterizedTypeName.get(impl, vars.toArray(TypeName[]::new));
+        var cursor = tableType instanceof ParameterizedTypeName p ? p.nestedClass(CURSOR) : impl.nestedClass(CURSOR);
+        var diamond = vars.isEmpty() ? "" : "<>";
+        if (properties.values().stream().anyMatch(x -> !typed(x.type())))
+            builder.addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build());
+        builder.addField(FieldSpec.builder(int.class, "size", Modifier.PRIVATE).build())
+                .addField(FieldSpec.builder(int.class, "capacity", Modifier.PRIVATE).build());
+        var ctor = MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "capacity")
+                .addStatement("if (capacity < 0) throw new $T($S + capacity)", IllegalArgumentException.class, "negative capacity: ")
+                .addStatement("this.capacity = capacity");
+        var ensure = MethodSpec.methodBuilder("ensure")
+                .addJavadoc("grow columns to hold at least n rows\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(int.class, "n")
+                .addStatement("if (n <= capacity) return")
+                .addStatement("var c = $T.max(n, capacity + (capacity >> 1) + 1)", Math.class);
+        var append = MethodSpec.methodBuilder("append")
+                .addJavadoc("@return row index of appended entity\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(int.class)
+                .addParameter(model, "e")
+                .addStatement("ensure(size + 1)");
+        var copy = MethodSpec.methodBuilder("copy")
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(tableType, "src")
+                .addParameter(int.class, "row")
+                .addStatement("ensure(size + 1)");
+        for (var p : properties.values()) {
+            var col = column(p.type());
+            builder.addField(FieldSpec.builder(col, p.field(), Modifier.PRIVATE).build());
+            ctor.addStatement("this.$N = $L", p.field(), allocate(p.type()));
+            ensure.addStatement("$N = $T.copyOf($N, c)", p.field(), Arrays.class, p.field());
+            append.addStatement("$N[size] = e.$N()", p.field(), p.getter().getSimpleName().toString());
+            copy.addStatement("$N[size] = src.$N[row]", p.field(), p.field());
+        }
+        ensure.addStatement("capacity = c");
+        builder.addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC)
+                        .addStatement("this(16)")
+                        .build())
+                .addMethod(ctor.build())
+                .addMethod(ensure.build())
+                .addMethod(MethodSpec.methodBuilder("size")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(int.class)
+                        .addStatement("return size")
+                        .build())
+                .addMethod(append.addStatement("return size++").build())
+                .addMethod(MethodSpec.methodBuilder("appendAll")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(Iterable.class), WildcardTypeName.subtypeOf(model)), "entities")
+                        .addStatement("for (var e : entities) append(e)")
+                        .build())
+                .addMethod(copy.addStatement("size++").build())
+                .addMethod(MethodSpec.methodBuilder("cursor")
+                        .addJavadoc("@return a new cursor at the row\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(cursor)
+                        .addParameter(int.class, "row")
+                        .addStatement("return new $N().at(row)", CURSOR)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("forEach")
+                        .addJavadoc("scan all rows with one flyweight cursor, which should not be kept by the action.\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(Consumer.class), WildcardTypeName.supertypeOf(cursor)), "action")
+                        .addStatement("var c = new $N()", CURSOR)
+                        .addStatement("for (int i = 0; i < size; i++) action.accept(c.row(i))")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("filter")
+                        .addJavadoc("@return a new table of matched rows, scanned with one flyweight cursor\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(tableType)
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(Predicate.class), WildcardTypeName.supertypeOf(cursor)), "predicate")
+                        .addStatement("$T out = new $T$L()", tableType, impl, diamond)
+                        .addStatement("var c = new $N()", CURSOR)
+                        .addStatement("for (int i = 0; i < size; i++) if (predicate.test(c.row(i))) out.copy(this, i)")
+                        .addStatement("return out")
+                        .build())
+                .addType(cursor(cursor));
+        return List.of();
+    }
+
+    /**
+     * a cursor reads and writes cells of current row through the entity interface.
+     */
+    protected TypeSpec cursor(TypeName cursor) {
+        var table = impl.simpleName() + ".this.";
+        var type = TypeSpec.classBuilder(CURSOR)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(self)
+                // Meta.Object is inherited as a member type
+                .alwaysQualify("Object")
+                .addField(FieldSpec.builder(int.class, "row", Modifier.PRIVATE).build())
+                .addMethod(MethodSpec.methodBuilder("at")
+                        .addJavadoc("@return this cursor moved to the row\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(cursor)
+                        .addParameter(int.class, "row")
+                        .addStatement("this.row = $T.checkIndex(row, size)", Objects.class)
+                        .addStatement("return this")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("row")
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(cursor)
+                        .addParameter(int.class, "row")
+                        .addStatement("this.row = row")
+                        .addStatement("return this")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("index")
+                        .addJavadoc("@return current row\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(int.class)
+                        .addStatement("return row")
+                        .build());
+        var re = u.typeElementOf(root);
+        for (var p : properties.values()) {
+            type.addMethod(MethodSpec.methodBuilder(p.getter().getSimpleName().toString())
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(p.type())
+                    .addStatement("return $L", read(p, table, "row"))
+                    .build());
+            var d = declared.get(p);
+            if (d != null) {
+                var ret = u.resolveTypeName(d.getReturnType(), d, re);
+                var m = MethodSpec.methodBuilder(p.setter())
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(u.resolveTypeName(d.getParameters().get(0).asType(), d, re), "v")
+                        .returns(ret)
+                        .addStatement("$L$N[row] = v", table, p.field());
+                if (!ret.equals(TypeName.VOID)) m.addStatement("return this");
+                type.addMethod(m.build());
+            } else if (!p.readOnly() && p.setter() != null) {
+                var m = MethodSpec.methodBuilder(p.setter())
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(p.type(), "v")
+                        .addStatement("$L$N[row] = v", table, p.field());
+                if (chain) m.returns(self).addStatement("return this");
+                type.addMethod(m.build());
+            }
+        }
+        if (object) {
+            type.addMethod(MethodSpec.methodBuilder("save")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addStatement("throw new $T($S)", UnsupportedOperationException.class, "cursor of table")
+                    .build());
+            type.addMethod(MethodSpec.methodBuilder("delete")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(boolean.class)
+                    .addStatement("throw new $T($S)", UnsupportedOperationException.class, "cursor of table")
+                    .build());
+        }
+        return type.build();
+    }
+}
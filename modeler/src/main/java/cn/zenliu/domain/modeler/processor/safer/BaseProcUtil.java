@@ -16,6 +16,7 @@
 package cn.zenliu.domain.modeler.processor.safer;
 
 import cn.zenliu.domain.modeler.processor.AbstractProcessor;
+import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -42,4 +43,32 @@ public interface BaseProcUtil {
     Filer filer();
 
     boolean isDebug();
+
+    /**
+     * @return reproducible mode by root config 'reproducible'.
+     */
+    default boolean isReproducible() {
+        return false;
+    }
+
+    /**
+     * @return type query cache of current round, null if not in a round.
+     */
+    default @Nullable RoundCache cache() {
+        return null;
+    }
+
+    /**
+     * @return source writer of current round, null if not in a round.
+     */
+    default @Nullable Emitter emitter() {
+        return null;
+    }
+
+    /**
+     * @return profiler, null if not enabled by root config 'profile'.
+     */
+    default @Nullable Profiler profiler() {
+        return null;
+    }
 }
@@ -45,6 +45,11 @@ import java.util.stream.StreamSupport;
 @ApiStatus.AvailableSince("0.1.2")
 public interface Configurer {
     String FILE_NAME = "modeler.properties";
+    /**
+     * name of build local directory under the build output (as 'target/modeler' of maven), for files never shipped with classes.
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    String OUTPUT_DIR = "modeler";
 
     boolean DEBUG = System.getProperty("modeler.config.debug") != null;
 
@@ -74,14 +79,19 @@ public interface Configurer {
     SortedSet<Path> MODULES = new TreeSet<>(Comparator.comparing(Path::getNameCount));
 
     enum BuiltType {
-        MAVEN("pom.xml"),
-        GRADLE("build.gradle"),
-        ANT("build.xml"),
+        MAVEN("pom.xml", "target"),
+        GRADLE("build.gradle", "build"),
+        ANT("build.xml", null),
         ;
         final String conf;
+        /**
+         * build output directory of module, null if not a convention.
+         */
+        final @org.jetbrains.annotations.Nullable String output;
 
-        BuiltType(String conf) {
+        BuiltType(String conf, @org.jetbrains.annotations.Nullable String output) {
             this.conf = conf;
+            this.output = output;
         }
 
         public boolean match(Path p) {
@@ -102,20 +112,6 @@ public interface Configurer {
     AtomicReference<Path> ROOT = new AtomicReference<>();
 
 
-    static Set<Path> locator(int deep, int up, Predicate<Path> match) {
-        var found = new HashSet<Path>();
-        into(deep, match).forEach(found::add);
-        lookup(up, match).findFirst().ifPresent(found::add);
-        return found;
-    }
-
-    @SneakyThrows
-    static Stream<Path> into(int deep, Predicate<Path> match) {
-        return Files.walk(USER_DIR, deep)
-                .filter(x -> x.getFileName().toString().charAt(0) != '.' && x.toFile().isFile())
-                .filter(match);
-    }
-
     static boolean buildFile(Path path) {
         return BuiltType.matches(path) != null;
     }
@@ -204,29 +200,96 @@ public interface Configurer {
     class DeepFirstConf extends PropertiesConf {
         @Getter
         final int deep;
+        @Getter
+        final String file;
 
         DeepFirstConf(Properties p, Path file) {
             super(p);
-            deep = file.getNameCount();
+            this.deep = file.getNameCount();
+            this.file = file.toString();
         }
     }
 
     /**
-     * @param properties SortedSet of properties
-     * @param cache      cache map (may concurrent)
+     * A typed option with precomputed key.
+     *
+     * @param key      full key
+     * @param parser   value parser
+     * @param fallback value when absent
      */
-    record Config(Set<Configuration> properties, Map<String, Object> cache) {
-        @SuppressWarnings("unchecked")
-        public <T> Optional<T> read(String key, Function<String, T> parser) {
-            if (cache.containsKey(key)) return Optional.of((T) cache.get(key));
+    record Option<T>(String key, Function<String, T> parser, T fallback) {
+        public static Option<Boolean> bool(String key, boolean fallback) {
+            return new Option<>(key, Boolean::parseBoolean, fallback);
+        }
+
+        public static Option<String> string(String key, String fallback) {
+            return new Option<>(key, Function.identity(), fallback);
+        }
+
+        /**
+         * @return option of the prefix, such as a processor config prefix
+         */
+        public Option<T> of(@javax.annotation.Nullable String prefix) {
+            return prefix == null ? this : new Option<>(prefix + key, parser, fallback);
+        }
+    }
+
+    Option<Boolean> ENABLED = Option.bool("enabled", true);
+    Option<Boolean> DEBUG_OPTION = Option.bool("debug", true);
+    /**
+     * precomputed 'enabled' option of each processor prefix.
+     */
+    Map<String, Option<Boolean>> PREFIX_ENABLED = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties SortedSet of properties, the former has higher precedence
+     * @param cache      compiled values, keyed by {@link Option} or any key of {@link #compile(Object, Function)}
+     * @param values     flattened raw values
+     */
+    record Config(Set<Configuration> properties, Map<Object, Object> cache, Map<String, String> values) {
+        public Config(Set<Configuration> properties, Map<Object, Object> cache) {
+            this(properties, cache, flatten(properties));
+        }
+
+        private static Map<String, String> flatten(Set<Configuration> properties) {
+            var m = new HashMap<String, String>();
             for (var property : properties) {
-                if (property.containsKey(key)) {
-                    var v = parser.apply(property.getProperty(key));
-                    cache.put(key, v);
-                    return Optional.of(v);
-                }
+                for (var k : property.keySet()) m.putIfAbsent(k, property.getProperty(k));
             }
-            return Optional.empty();
+            return Map.copyOf(m);
+        }
+
+        public <T> Optional<T> read(String key, Function<String, T> parser) {
+            var v = values.get(key);
+            return v == null ? Optional.empty() : Optional.of(parser.apply(v));
+        }
+
+        /**
+         * @return parsed value of option, parsed once of each config.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(Option<T> option) {
+            var v = cache.get(option);
+            if (v != null) return (T) v;
+            var raw = values.get(option.key());
+            var t = raw == null ? option.fallback() : option.parser().apply(raw);
+            if (t != null) cache.put(option, t);
+            return t;
+        }
+
+        /**
+         * compile this config into a typed immutable options object, which is computed once of each config.
+         *
+         * @param key      identity of options, such as the processor instance
+         * @param compiler compiler
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T compile(Object key, Function<Config, T> compiler) {
+            var v = cache.get(key);
+            if (v != null) return (T) v;
+            var t = compiler.apply(this);
+            cache.put(key, t);
+            return t;
         }
 
         public Optional<Boolean> readBoolean(String key) {
@@ -250,17 +313,65 @@ public interface Configurer {
         }
 
         public List<String> keys() {
-            return properties.stream().flatMap(x -> x.keySet().stream()).map(x -> (String) x).distinct().toList();
+            return values.keySet().stream().sorted().toList();
         }
 
         public boolean enabled(@javax.annotation.Nullable String prefix) {
-            var root = readBoolean("enabled").orElse(true);
+            var root = get(ENABLED);
             if (prefix == null) return root;
-            return readBoolean(prefix + "enabled").orElse(true);
+            return get(PREFIX_ENABLED.computeIfAbsent(prefix, ENABLED::of));
         }
 
         public boolean debug() {
-            return readBoolean("debug").orElse(true);
+            return get(DEBUG_OPTION);
+        }
+
+        /**
+         * the 'timestamp' of generated sources: 'current' for wall-clock time, 'fixed' for zero,
+         * 'epoch' for environment SOURCE_DATE_EPOCH (zero if absent) or any literal epoch milliseconds,
+         * the later three make outputs stable between builds. Defaults to 'epoch' when {@link #reproducible()}, else 'current',
+         * which is also used for an invalid value after reported once.
+         */
+        public long timestamp() {
+            var v = readString("timestamp").map(String::trim).orElse("");
+            var fallback = reproducible() ? "epoch" : "current";
+            if (v.isEmpty()) v = fallback;
+            return switch (v) {
+                case "current" -> System.currentTimeMillis();
+                case "fixed" -> 0L;
+                case "epoch" -> sourceDateEpoch();
+                default -> {
+                    try {
+                        yield Long.parseLong(v);
+                    } catch (NumberFormatException e) {
+                        if (cache.putIfAbsent("timestamp.invalid", v) == null)
+                            errorf("invalid timestamp '{}', use '{}' instead", v, fallback);
+                        yield fallback.equals("epoch") ? sourceDateEpoch() : System.currentTimeMillis();
+                    }
+                }
+            };
+        }
+
+        /**
+         * the 'reproducible' mode: timestamp defaults to 'epoch' and members are emitted in sorted order.
+         */
+        public boolean reproducible() {
+            return readBoolean("reproducible").orElse(false);
+        }
+
+        /**
+         * @return SOURCE_DATE_EPOCH in milliseconds, zero if absent or invalid.
+         * @see <a href="https://reproducible-builds.org/specs/source-date-epoch/">SOURCE_DATE_EPOCH</a>
+         */
+        static long sourceDateEpoch() {
+            var v = System.getenv("SOURCE_DATE_EPOCH");
+            if (v == null || v.isBlank()) return 0L;
+            try {
+                return Long.parseLong(v.trim()) * 1000L;
+            } catch (NumberFormatException e) {
+                errorf("invalid SOURCE_DATE_EPOCH '{}', use zero instead", v);
+                return 0L;
+            }
         }
 
         public Optional<List<String>> accept(String prefix) {
@@ -269,30 +380,125 @@ public interface Configurer {
     }
 
     static Config parse(Path file) {
-        var p = new Properties();
-        try {
-            p.load(file.toUri().toURL().openStream());
-        } catch (IOException e) {
-            return null;
-        }
+        var p = load(file);
+        if (p == null) return null;
         return new Config(Collections.singleton(new PropertiesConf(p)), new ConcurrentHashMap<>());
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     static Config parse(Set<Path> file) {
-        var set = new TreeSet<>(Comparator.comparing(DeepFirstConf::getDeep).reversed());
+        var set = new TreeSet<>(Comparator.comparing(DeepFirstConf::getDeep).reversed().thenComparing(DeepFirstConf::getFile));
         for (var path : file) {
-            try {
-                var p = new Properties();
-                p.load(path.toUri().toURL().openStream());
-                set.add(new DeepFirstConf(p, path));
-            } catch (IOException e) {
-                return null;
-            }
+            var p = load(path);
+            if (p == null) return null;
+            set.add(new DeepFirstConf(p, path));
         }
         return new Config((Set<Configuration>) (Set) set, new ConcurrentHashMap<>());
     }
 
+    /**
+     * a parsed config file
+     *
+     * @param modified last modified time when parsed
+     */
+    record Loaded(long modified, Properties properties) {
+    }
+
+    /**
+     * a resolved config of source directory
+     *
+     * @param modified last modified time of each config file when resolved
+     */
+    record Resolved(Config config, Map<Path, Long> modified) {
+        boolean valid() {
+            for (var e : modified.entrySet()) {
+                if (Configurer.modified(e.getKey()) != e.getValue()) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * parsed config files, invalidated by last modified time.
+     */
+    Map<Path, Loaded> LOADED = new ConcurrentHashMap<>();
+    /**
+     * resolved config by source directory, invalidated by last modified time of config files.
+     */
+    Map<Path, Resolved> RESOLVED = new ConcurrentHashMap<>();
+    /**
+     * modules with configs, for longest prefix lookup of source directory.
+     */
+    AtomicReference<PathTrie> TRIE = new AtomicReference<>(new PathTrie());
+
+    static long modified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return properties of file, null if fail to read
+     */
+    static Properties load(Path file) {
+        var m = modified(file);
+        var l = LOADED.get(file);
+        if (l != null && l.modified == m) return l.properties;
+        var p = new Properties();
+        try (var in = Files.newInputStream(file)) {
+            p.load(in);
+        } catch (IOException e) {
+            LOADED.remove(file);
+            return null;
+        }
+        LOADED.put(file, new Loaded(m, p));
+        return p;
+    }
+
+    /**
+     * A trie of path names, which maps a directory to its nearest module with configs.
+     */
+    final class PathTrie {
+        private final Map<String, PathTrie> children = new HashMap<>();
+        private Path module;
+
+        static PathTrie of(Map<Path, SortedSet<Path>> configs) {
+            var root = new PathTrie();
+            configs.forEach((k, v) -> {
+                if (v.isEmpty()) return;
+                var n = root;
+                for (var name : names(k)) n = n.children.computeIfAbsent(name, x -> new PathTrie());
+                n.module = k;
+            });
+            return root;
+        }
+
+        private static List<String> names(Path p) {
+            var out = new ArrayList<String>(p.getNameCount() + 1);
+            if (p.getRoot() != null) out.add(p.getRoot().toString());
+            for (var name : p) out.add(name.toString());
+            return out;
+        }
+
+        /**
+         * @param dir absolute directory
+         * @return the deepest module contains the directory, null if none
+         */
+        @org.jetbrains.annotations.Nullable
+        Path longest(Path dir) {
+            var n = this;
+            var found = module;
+            for (var name : names(dir)) {
+                n = n.children.get(name);
+                if (n == null) break;
+                if (n.module != null) found = n.module;
+            }
+            return found;
+        }
+    }
+
     @Data
     class Setting {
         boolean debug;
@@ -355,21 +561,12 @@ public interface Configurer {
             return ROOT_CONF.get();
         }
         //the source parent
-        var path = Paths.get(uri).getParent().toAbsolutePath().toString();
-        Set<Path> match = null;
-        Path last = null;
-        for (var entry : CONFIGS.entrySet()) {
-            var key = entry.getKey();
-            var val = entry.getValue();
-            if (path.startsWith(key.toString()) && !val.isEmpty()) {
-                if (last == null || last.getNameCount() < key.getNameCount()) {
-                    match = val;
-                    last = key;
-                }
-
-            }
-        }
-        if (match == null) {
+        var dir = Paths.get(uri).getParent().toAbsolutePath();
+        var r = RESOLVED.get(dir);
+        if (r != null && r.valid()) return r.config;
+        var last = TRIE.get().longest(dir);
+        var match = last == null ? null : CONFIGS.get(last);
+        if (match == null || match.isEmpty()) {
             debugCfg("Found no element {} relative config ", element);
             return ROOT_CONF.get();
         }
@@ -378,17 +575,23 @@ public interface Configurer {
         if (last.toString().startsWith(rc.toString()))
             p.add(rc);
         debugCfg("Found element {} relative configs {} ", element, p);
-        return parse(p);
+        var modified = new HashMap<Path, Long>();
+        for (var x : p) modified.put(x, modified(x));
+        var c = parse(p);
+        if (c != null) RESOLVED.put(dir, new Resolved(c, modified));
+        return c;
     }
 
     static boolean init() {
         CONFIGS.clear();
         MODULES.clear();
-        var modules = locator(15, 4, Configurer::buildFile)
+        RESOLVED.clear();
+        var scan = new ProjectScanner(USER_DIR, 15, Configurer::buildFile, Configurer::configFile).scan(4);
+        var modules = scan.builds()
                 .stream()
                 .map(Path::getParent)
                 .collect(Collectors.toSet());
-        var settings = locator(15, 4, Configurer::configFile);
+        var settings = scan.configs();
         var root = (Path) null;
         for (var module : modules) {
             module = module.toAbsolutePath();
@@ -414,12 +617,25 @@ public interface Configurer {
                 rs.clear(); //NO root configuration
             }
         }
+        TRIE.set(PathTrie.of(CONFIGS));
         debugCfg("Found root config: {} ", root);
         debugCfg("Found configs: {} ", CONFIGS);
         debugCfg("Found modules: {} ", MODULES);
         return ROOT.get() == null;
     }
 
+    /**
+     * simple check if a module without config is a submodule of located root config.
+     *
+     * @param module     module directory
+     * @param rootConfig root config file
+     * @return module is under the directory of root config, by path names rather than string prefix.
+     */
+    static boolean isSubmodule(Path module, Path rootConfig) {
+        var dir = rootConfig.toAbsolutePath().getParent();
+        return dir != null && module.toAbsolutePath().startsWith(dir);
+    }
+
     /**
      * calculate the real root configuration path
      */
@@ -438,10 +654,11 @@ public interface Configurer {
         if (val == null || val.isEmpty()) {
             debugCfg("Can't found module {} config in {}", root, CONFIGS);
             if (ROOT.get() == null) return false;
-            return root.toString().startsWith(ROOT.get().toString());//simple check if a submodule of located config
+            return isSubmodule(root, ROOT.get());
         }
         var roots = val.first();
         debugCfg("Found module {} root config at {} ", root, roots);
+        if (!roots.equals(ROOT.get())) RESOLVED.clear();
         ROOT.set(roots);
         return true;
     }
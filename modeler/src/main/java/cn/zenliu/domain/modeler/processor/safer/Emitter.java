@@ -0,0 +1,64 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Write generated sources of one round through the {@link Filer}, rendering and writing of each source are timed by the profiler.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-21
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public final class Emitter {
+    private final Filer filer;
+    private final @Nullable Profiler profiler;
+
+    public Emitter(Filer filer, @Nullable Profiler profiler) {
+        this.filer = filer;
+        this.profiler = profiler;
+    }
+
+    /**
+     * @param processor name of processor, for profiling
+     * @param element   source element, for profiling
+     * @param name      qualified name of source
+     * @param render    render source content
+     * @param origins   originating elements
+     */
+    public void emit(String processor, Object element, String name, Supplier<String> render, Element[] origins) throws IOException {
+        var content = profiler == null ? render.get() : profiler.time(processor, element, Profiler.Phase.RENDER, render);
+        var start = System.nanoTime();
+        var source = filer.createSourceFile(name, origins);
+        try (var w = source.openWriter()) {
+            w.write(content);
+        } catch (IOException | RuntimeException e) {
+            try {
+                source.delete();
+            } catch (Exception ignored) {
+            }
+            throw e;
+        }
+        if (profiler != null) profiler.record(processor, element, Profiler.Phase.WRITE, start);
+    }
+}
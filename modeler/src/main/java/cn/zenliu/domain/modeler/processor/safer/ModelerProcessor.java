@@ -21,6 +21,7 @@ import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import javax.annotation.processing.*;
 import javax.lang.model.SourceVersion;
@@ -56,6 +57,14 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
     }
 
     private Map<String, cn.zenliu.domain.modeler.processor.AbstractProcessor> enabledProcessors;
+    /**
+     * annotation qualified name to processors, exact names are computed when init, others are computed when first seen.
+     */
+    private final Map<String, List<AbstractProcessor>> dispatch = new HashMap<>();
+    /**
+     * enabled processors in order of name.
+     */
+    private List<AbstractProcessor> ordered = List.of();
     //region Pattern Compile
     public static final Pattern noMatches = Pattern.compile("(\\P{all})+");
     private static final String allMatchesString = ".*";
@@ -155,9 +164,18 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
         }
     }
 
+    /**
+     * Gradle option to declare an aggregating processor, see 'META-INF/gradle/incremental.annotation.processors'.
+     */
+    public static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+    /**
+     * always declares as aggregating: outputs depend on config files and on {@link cn.zenliu.domain.modeler.annotation.Gene.Adapt#mappers()},
+     * which are not originating elements, and resources such as the profile have no originating element at all.
+     */
     @Override
     public Set<String> getSupportedOptions() {
-        return Collections.emptySet();
+        return Set.of(GRADLE_AGGREGATING);
     }
 
     @Override
@@ -186,6 +204,15 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
     private boolean initialized = false;
     @Getter
     private boolean debug = false;
+    @Getter
+    private boolean reproducible = false;
+    @Getter
+    @Accessors(fluent = true)
+    private Profiler profiler;
+    /**
+     * directory of CLASS_OUTPUT, null if not on file system
+     */
+    private @Nullable Path classOutput;
 
     protected Path fetchModuleRoot(ProcessingEnvironment env) {
         try {
@@ -215,6 +242,7 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
         this.filer = processingEnv.getFiler();
         initialized = true;
         var root = fetchModuleRoot(processingEnv);
+        this.classOutput = root;
         if (root != null) {
             if (!Configurer.calcRoot(root)) {
                 this.processors = Collections.emptyMap();
@@ -233,6 +261,10 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
             return;
         }
         this.debug = conf.v0().debug;
+        if (ROOT_CONF.get() != null) {
+            this.reproducible = ROOT_CONF.get().reproducible();
+            this.profiler = Profiler.of(ROOT_CONF.get().readString("profile").orElse(""), processingEnv.getMessager());
+        }
         var processors = conf.v1();
         if (!conf.v0().isEnabled()) {
             this.processors = Collections.emptyMap();
@@ -263,26 +295,76 @@ public class ModelerProcessor implements Processor, BaseProcUtil {
                 .collect(Collectors.toMap(AbstractProcessor::name, Function.identity()));
         if (debug)
             debugf("Enabled processors: {}", this.enabledProcessors);
+        this.ordered = this.enabledProcessors.values().stream()
+                .sorted(Comparator.comparing(AbstractProcessor::name))
+                .toList();
+        for (var name : processors.keySet()) {
+            if (name.indexOf('*') < 0 && name.indexOf('/') < 0) dispatch.put(name, match(name));
+        }
+        if (debug)
+            debugf("Dispatch table: {}", this.dispatch);
+    }
 
+    /**
+     * @param annotation qualified name of annotation
+     * @return processors accept the annotation, in order of name
+     */
+    private List<AbstractProcessor> match(String annotation) {
+        var out = new ArrayList<AbstractProcessor>();
+        for (var entry : processors.entrySet()) {
+            if (!entry.getKey().matcher(annotation).matches()) continue;
+            for (var proc : entry.getValue()) {
+                if (!out.contains(proc)) out.add(proc);
+            }
+        }
+        out.sort(Comparator.comparing(AbstractProcessor::name));
+        return out.isEmpty() ? List.of() : List.copyOf(out);
     }
 
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         if (processors.isEmpty()) return false;
-        for (var entry : processors.entrySet()) {
-            var p = entry.getKey();
-            for (var proc : entry.getValue()) {
-                if (annotations.isEmpty() && Objects.equals(p.pattern(), "*")) {
-                    if (proc.process(null, annotations, roundEnv, new ProcUtilPacker(this))) return true;
-                } else {
-                    var pred = p.asPredicate();
-                    for (var annotation : annotations) {
-                        if (!pred.test(annotation.asType().toString())) continue;
-                        for (var element : roundEnv.getElementsAnnotatedWith(annotation)) {
-                            if (proc.process(element, annotations, roundEnv, new ProcUtilPacker(this))) return true;
-                        }
-                    }
-                }
+        if (roundEnv.processingOver()) {
+            if (profiler != null) saveProfile();
+            return false;
+        }
+        var u = new ProcUtilPacker(this, new RoundCache(), new Emitter(filer, profiler));
+        try {
+            return dispatch(annotations, roundEnv, u);
+        } finally {
+            if (debug) debugf("Round done with {}", u.cache());
+        }
+    }
+
+    private void saveProfile() {
+        if (classOutput == null) {
+            env.getMessager().printMessage(Diagnostic.Kind.WARNING, "[modeler processor] profile skipped for CLASS_OUTPUT is not a directory");
+            return;
+        }
+        try {
+            profiler.save(classOutput);
+        } catch (Exception e) {
+            env.getMessager().printMessage(Diagnostic.Kind.WARNING, "[modeler processor] fail to write profile: " + e.getMessage());
+        }
+    }
+
+    /**
+     * processors only receive annotated elements, never a null element: processors accept '*' are dispatched by
+     * each annotation the same as any other pattern.
+     */
+    private boolean dispatch(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv, ProcUtilPacker u) {
+        var work = new LinkedHashMap<AbstractProcessor, Set<Element>>();
+        for (var annotation : annotations) {
+            var list = dispatch.computeIfAbsent(annotation.getQualifiedName().toString(), this::match);
+            if (list.isEmpty()) continue;
+            var found = roundEnv.getElementsAnnotatedWith(annotation);
+            for (var proc : list) work.computeIfAbsent(proc, x -> new LinkedHashSet<>()).addAll(found);
+        }
+        for (var proc : ordered) {
+            var found = work.get(proc);
+            if (found == null) continue;
+            for (var element : found) {
+                if (proc.process(element, annotations, roundEnv, u)) return true;
             }
         }
         return false;
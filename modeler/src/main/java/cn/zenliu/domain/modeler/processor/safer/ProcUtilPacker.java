@@ -17,7 +17,6 @@ package cn.zenliu.domain.modeler.processor.safer;
 
 import cn.zenliu.domain.modeler.processor.AbstractProcessor;
 import cn.zenliu.domain.modeler.processor.ProcUtil;
-import cn.zenliu.domain.modeler.processor.safer.BaseProcUtil;
 
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -26,6 +25,8 @@ import javax.lang.model.util.Types;
 import java.util.Map;
 
 /**
+ * ProcUtil of one round, which shares a {@link RoundCache} between all processors.
+ *
  * @author Zen.Liu
  * @since 2023-05-01
  */
@@ -60,9 +61,38 @@ class ProcUtilPacker implements ProcUtil {
         return base.isDebug();
     }
 
+    @Override
+    public RoundCache cache() {
+        return cache;
+    }
+
+    @Override
+    public boolean isReproducible() {
+        return base.isReproducible();
+    }
+
+    @Override
+    public Profiler profiler() {
+        return base.profiler();
+    }
+
+    @Override
+    public Emitter emitter() {
+        return emitter;
+    }
+
     private final BaseProcUtil base;
+    private final RoundCache cache;
+    private final Emitter emitter;
 
-    ProcUtilPacker(BaseProcUtil base) {
+    /**
+     * @param base    the processor
+     * @param cache   cache of current round
+     * @param emitter source writer of current round
+     */
+    ProcUtilPacker(BaseProcUtil base, RoundCache cache, Emitter emitter) {
         this.base = base;
+        this.cache = cache;
+        this.emitter = emitter;
     }
 }
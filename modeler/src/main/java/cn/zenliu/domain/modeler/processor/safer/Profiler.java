@@ -0,0 +1,186 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import javax.annotation.processing.Messager;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in timings of processing, enabled by root config 'profile'.<br/>
+ * Timings are accumulated by processor, element and phase, and written as a report under the build output directory
+ * (such as 'target/modeler' of maven) when processing is over, which never ships with classes.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-21
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public final class Profiler {
+    public static final String FILE_NAME = "profile";
+
+    public enum Phase {
+        /**
+         * resolve configurations of element
+         */
+        CONFIG,
+        /**
+         * analyze types and build JavaPoet models
+         */
+        GENERATE,
+        /**
+         * render JavaPoet models into source
+         */
+        RENDER,
+        /**
+         * write source through Filer
+         */
+        WRITE,
+    }
+
+    public enum Format {
+        CSV, JSON
+    }
+
+    private record Key(String processor, String element, Phase phase) {
+    }
+
+    private static final class Stat {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    private final Format format;
+    private final Map<Key, Stat> stats = new ConcurrentHashMap<>();
+
+    public Profiler(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * @param value config value of 'profile': 'false' (default), 'true' or 'csv', 'json'
+     * @return null if not enabled or the value is invalid, which is warned through messager
+     */
+    public static @Nullable Profiler of(String value, Messager messager) {
+        return switch (value.trim().toLowerCase()) {
+            case "", "false" -> null;
+            case "true", "csv" -> new Profiler(Format.CSV);
+            case "json" -> new Profiler(Format.JSON);
+            default -> {
+                messager.printMessage(Diagnostic.Kind.WARNING, "[modeler processor] invalid profile '" + value + "', profiling disabled");
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * @param start value of {@link System#nanoTime()} when phase started
+     */
+    public void record(String processor, Object element, Phase phase, long start) {
+        var elapsed = System.nanoTime() - start;
+        var s = stats.computeIfAbsent(new Key(processor, String.valueOf(element), phase), x -> new Stat());
+        s.count.increment();
+        s.nanos.add(elapsed);
+    }
+
+    public <T> T time(String processor, Object element, Phase phase, Supplier<T> action) {
+        var start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(processor, element, phase, start);
+        }
+    }
+
+    /**
+     * rows of each element, then a summary row of each processor and phase with element '*'.
+     *
+     * @return report content in {@link #format}
+     */
+    public String report() {
+        var rows = new TreeMap<Key, long[]>(Comparator.comparing(Key::processor)
+                .thenComparing(k -> k.element.equals("*"))
+                .thenComparing(Key::element)
+                .thenComparing(Key::phase));
+        stats.forEach((k, v) -> {
+            var c = v.count.sum();
+            var n = v.nanos.sum();
+            rows.put(k, new long[]{c, n});
+            var sum = rows.computeIfAbsent(new Key(k.processor, "*", k.phase), x -> new long[2]);
+            sum[0] += c;
+            sum[1] += n;
+        });
+        var b = new StringBuilder();
+        if (format == Format.CSV) {
+            b.append("processor,element,phase,count,nanos\n");
+            rows.forEach((k, v) -> b.append(k.processor).append(',').append(k.element).append(',')
+                    .append(k.phase).append(',').append(v[0]).append(',').append(v[1]).append('\n'));
+        } else {
+            b.append("[");
+            var first = true;
+            for (var e : rows.entrySet()) {
+                if (!first) b.append(',');
+                first = false;
+                var k = e.getKey();
+                b.append("\n{\"processor\":\"").append(k.processor)
+                        .append("\",\"element\":\"").append(k.element.replace("\\", "\\\\").replace("\"", "\\\""))
+                        .append("\",\"phase\":\"").append(k.phase)
+                        .append("\",\"count\":").append(e.getValue()[0])
+                        .append(",\"nanos\":").append(e.getValue()[1]).append('}');
+            }
+            b.append("\n]\n");
+        }
+        return b.toString();
+    }
+
+    /**
+     * @param classOutput directory of CLASS_OUTPUT
+     * @return the report file under build output directory: the parent of nearest 'classes' directory (both 'target/classes' of maven
+     * and 'build/classes/java/main' of gradle), else the parent of CLASS_OUTPUT.
+     */
+    public Path file(Path classOutput) {
+        var dir = classOutput.toAbsolutePath();
+        for (var p = dir; p != null && p.getParent() != null; p = p.getParent()) {
+            if (p.getFileName().toString().equals("classes")) {
+                dir = p;
+                break;
+            }
+        }
+        return dir.resolveSibling(Configurer.OUTPUT_DIR).resolve(FILE_NAME + "." + format.name().toLowerCase());
+    }
+
+    /**
+     * write report under build output directory.
+     *
+     * @param classOutput directory of CLASS_OUTPUT
+     */
+    public void save(Path classOutput) throws IOException {
+        var f = file(classOutput);
+        Files.createDirectories(f.getParent());
+        Files.writeString(f, report(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Single pass scanner of build files and config files under a project directory.<br/>
+ * Directories in {@link #SKIP} or start with '.' are not visited, sub-directories are visited in parallel.
+ * The result is kept in an index file under the build output directory of root (such as 'target/modeler' of maven),
+ * with last modified time of each visited directory, which is reused by later compilations until any directory changed or cleaned.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-21
+ */
+@ApiStatus.AvailableSince("0.2.3")
+final class ProjectScanner {
+    /**
+     * directory names never visited, extra names can be added by system property 'modeler.scan.skip' (comma separated).
+     */
+    static final Set<String> SKIP;
+
+    static {
+        var s = new HashSet<>(Set.of("target", "build", "out", "bin", "node_modules"));
+        var extra = System.getProperty("modeler.scan.skip");
+        if (extra != null)
+            for (var x : extra.split(",")) if (!x.isBlank()) s.add(x.trim());
+        SKIP = Collections.unmodifiableSet(s);
+    }
+
+    private static final String VERSION = "1";
+
+    /**
+     * @param builds  found build files
+     * @param configs found config files
+     */
+    record Result(Set<Path> builds, Set<Path> configs) {
+    }
+
+    private final Path root;
+    private final int deep;
+    private final Predicate<Path> build;
+    private final Predicate<Path> config;
+
+    ProjectScanner(Path root, int deep, Predicate<Path> build, Predicate<Path> config) {
+        this.root = root;
+        this.deep = deep;
+        this.build = build;
+        this.config = config;
+    }
+
+    /**
+     * @param up max parent directories to look up, the nearest build file and config file are included.
+     */
+    Result scan(int up) {
+        var index = index();
+        var r = index == null ? null : read(index);
+        if (r == null) {
+            var dirs = new ConcurrentHashMap<Path, Long>();
+            r = walk(dirs);
+            if (index != null) write(index, r, dirs);
+        } else Configurer.debugCfg("Reuse scan index {}", index);
+        var builds = new HashSet<>(r.builds);
+        var configs = new HashSet<>(r.configs);
+        lookup(up, build).ifPresent(builds::add);
+        lookup(up, config).ifPresent(configs::add);
+        return new Result(builds, configs);
+    }
+
+    private Result walk(Map<Path, Long> dirs) {
+        var builds = new ConcurrentLinkedQueue<Path>();
+        var configs = new ConcurrentLinkedQueue<Path>();
+        ForkJoinPool.commonPool().invoke(new Walk(root, 0, dirs, builds, configs));
+        return new Result(new HashSet<>(builds), new HashSet<>(configs));
+    }
+
+    private final class Walk extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        final Path dir;
+        final int level;
+        final Map<Path, Long> dirs;
+        final Queue<Path> builds;
+        final Queue<Path> configs;
+
+        Walk(Path dir, int level, Map<Path, Long> dirs, Queue<Path> builds, Queue<Path> configs) {
+            this.dir = dir;
+            this.level = level;
+            this.dirs = dirs;
+            this.builds = builds;
+            this.configs = configs;
+        }
+
+        @Override
+        protected void compute() {
+            dirs.put(dir, Configurer.modified(dir));
+            var subs = new ArrayList<Walk>();
+            try (var s = Files.newDirectoryStream(dir)) {
+                for (var p : s) {
+                    var name = p.getFileName().toString();
+                    if (name.isEmpty() || name.charAt(0) == '.') continue;
+                    if (Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS)) {
+                        if (level + 1 < deep && !SKIP.contains(name))
+                            subs.add(new Walk(p, level + 1, dirs, builds, configs));
+                    } else if (Files.isRegularFile(p)) {
+                        if (build.test(p)) builds.add(p);
+                        else if (config.test(p)) configs.add(p);
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                Configurer.debugCfg("Skip unreadable directory {}: {}", dir, e.getMessage());
+                return;
+            }
+            invokeAll(subs);
+        }
+    }
+
+    private Optional<Path> lookup(int up, Predicate<Path> match) {
+        return Configurer.lookup(up, match).findFirst();
+    }
+
+    /**
+     * @return index file under the build output directory of root, null if root is not a module or never built.
+     */
+    @Nullable Path index() {
+        for (var t : Configurer.BuiltType.values()) {
+            if (t.output == null || !Files.isRegularFile(root.resolve(t.conf))) continue;
+            var out = root.resolve(t.output);
+            if (!Files.isDirectory(out)) return null;
+            var key = hash(deep + "|" + new TreeSet<>(SKIP)).substring(0, 16);
+            return out.resolve(Configurer.OUTPUT_DIR).resolve("scan-" + key + ".idx");
+        }
+        return null;
+    }
+
+    private static String hash(String content) {
+        try {
+            var d = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return null if index not exists, broken or any directory changed
+     */
+    private @Nullable Result read(Path index) {
+        try {
+            if (!Files.isRegularFile(index)) return null;
+            var lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(VERSION)) return null;
+            var builds = new HashSet<Path>();
+            var configs = new HashSet<Path>();
+            for (int i = 1; i < lines.size(); i++) {
+                var l = lines.get(i);
+                if (l.length() < 2) return null;
+                var v = l.substring(2);
+                switch (l.charAt(0)) {
+                    case 'D' -> {
+                        var tab = v.indexOf('\t');
+                        if (tab < 0) return null;
+                        if (Configurer.modified(Paths.get(v.substring(tab + 1))) != Long.parseLong(v.substring(0, tab)))
+                            return null;
+                    }
+                    case 'B' -> builds.add(Paths.get(v));
+                    case 'C' -> configs.add(Paths.get(v));
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+            return new Result(builds, configs);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void write(Path index, Result r, Map<Path, Long> dirs) {
+        var b = new StringBuilder(VERSION).append('\n');
+        new TreeMap<>(dirs).forEach((k, v) -> b.append("D\t").append(v).append('\t').append(k).append('\n'));
+        for (var p : new TreeSet<>(r.builds)) b.append("B\t").append(p).append('\n');
+        for (var p : new TreeSet<>(r.configs)) b.append("C\t").append(p).append('\n');
+        try {
+            Files.createDirectories(index.getParent());
+            var tmp = Files.createTempFile(index.getParent(), "scan", ".tmp");
+            Files.writeString(tmp, b, StandardCharsets.UTF_8);
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Configurer.debugCfg("Fail to write scan index {}: {}", index, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Memoized type queries of one processing round, shared by all processors of that round.<br/>
+ * Elements and type mirrors of javac are stable inside a round, so mirrors are keyed by identity.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-20
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public final class RoundCache {
+    private final Map<String, TypeElement> elements = new ConcurrentHashMap<>();
+    private final Map<TypeElement, List<? extends Element>> members = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<TypeElement, Map<String, TypeMirror>> parameters = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<TypeMirror, Map<String, Boolean>> assignable = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final Map<String, Object> shared = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param qualifiedName canonical name
+     * @param loader        load element, may return null
+     * @return element or null if not found, which is not cached
+     */
+    public @Nullable TypeElement typeElement(String qualifiedName, Function<String, @Nullable TypeElement> loader) {
+        var v = elements.get(qualifiedName);
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+        misses.increment();
+        v = loader.apply(qualifiedName);
+        if (v != null) elements.put(qualifiedName, v);
+        return v;
+    }
+
+    public List<? extends Element> members(TypeElement type, Function<TypeElement, List<? extends Element>> loader) {
+        return load(members, type, loader);
+    }
+
+    /**
+     * @return a copy of cached type parameters, which is free to modify
+     */
+    public Map<String, TypeMirror> parameters(TypeElement type, Function<TypeElement, Map<String, TypeMirror>> loader) {
+        return new HashMap<>(load(parameters, type, x -> Collections.unmodifiableMap(loader.apply(x))));
+    }
+
+    public boolean assignable(TypeMirror type, String target, Supplier<Boolean> loader) {
+        var m = load(assignable, type, x -> new ConcurrentHashMap<>());
+        var v = m.get(target);
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+        misses.increment();
+        v = loader.get();
+        m.put(target, v);
+        return v;
+    }
+
+    /**
+     * @param key    unique key of the value, should be prefixed by the owner
+     * @param loader compute the value
+     * @return value computed once of each round, shared by all processors
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V shared(String key, Function<String, V> loader) {
+        return (V) load(shared, key, loader::apply);
+    }
+
+    private <K, V> V load(Map<K, V> cache, K key, Function<K, V> loader) {
+        var v = cache.get(key);
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+        misses.increment();
+        v = loader.apply(key);
+        cache.put(key, v);
+        return v;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RoundCache{hits=" + hits() + ", misses=" + misses() + ", types=" + elements.size() + '}';
+    }
+}
@@ -19,12 +19,16 @@ import cn.zenliu.domain.modeler.annotation.Gene;
 import cn.zenliu.domain.modeler.annotation.Mode;
 import cn.zenliu.domain.modeler.processor.GeneEntity;
 import cn.zenliu.domain.modeler.processor.GeneFields;
+import cn.zenliu.domain.modeler.util.Cases;
+import cn.zenliu.domain.modeler.util.EntityBatch;
 import lombok.SneakyThrows;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Modifier;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -59,6 +63,16 @@ public interface Meta {
     @ApiStatus.AvailableSince("0.1.0")
     interface Entity extends Meta {
         String SUFFIX="Entity";
+        /**
+         * suffix of generated implement class.
+         */
+        @ApiStatus.AvailableSince("0.2.3")
+        String IMPL_SUFFIX = "Impl";
+        /**
+         * suffix of generated columnar table class.
+         */
+        @ApiStatus.AvailableSince("0.2.3")
+        String TABLE_SUFFIX = "Table";
     }
 
     /**
@@ -107,6 +121,28 @@ public interface Meta {
          * static final field name suffix for hold the type class.
          */
         String TYPE_SUFFIX = "_TYPE";
+        /**
+         * static method name of generated name to ordinal lookup.
+         */
+        @ApiStatus.AvailableSince("0.2.3")
+        String ORDINAL_METHOD = "ordinal";
+
+        /**
+         * @param name static final field name
+         * @return true if it's a generated case style name constant, which is suffixed with '_' and a case type name.
+         * @see Cases.Type
+         */
+        @ApiStatus.AvailableSince("0.2.3")
+        static boolean isCaseName(String name) {
+            for (var t : Cases.Type.values()) {
+                if (t == Cases.Type.UNKNOWN) continue;
+                var n = t.name();
+                if (name.length() > n.length() + 1
+                        && name.endsWith(n)
+                        && name.charAt(name.length() - n.length() - 1) == '_') return true;
+            }
+            return false;
+        }
 
         /**
          * use reflect to dynamic read fields from class,the result should be cached.
@@ -120,6 +156,7 @@ public interface Meta {
 
                     var name = field.getName();
                     if (!name.toUpperCase().equals(name)) continue;
+                    if (isCaseName(name)) continue;
 
                     if (name.endsWith(TYPE_SUFFIX)) {
                         name = name.substring(0, name.indexOf(TYPE_SUFFIX));
@@ -168,31 +205,91 @@ public interface Meta {
         void save();
 
         /**
-         * transaction save
+         * transaction save, queued when transaction is an {@link EntityBatch}.
          *
          * @param transaction transaction object
          */
         default void save(java.lang.Object transaction) {
-
+            if (transaction instanceof EntityBatch b) b.save(this);
         }
 
         /**
-         * transaction delete
+         * transaction delete, queued when transaction is an {@link EntityBatch}.
          *
          * @param transaction transaction object
          * @return whether succeed
          */
         default boolean delete(java.lang.Object transaction) {
+            if (transaction instanceof EntityBatch b) {
+                b.delete(this);
+                return true;
+            }
             return false;
         }
     }
 
+    /**
+     * Tracked is an entity records modified fields by ordinals, which may generated by {@link Gene.Entity}.<br/>
+     * ordinals are the declared order of fields, setting an equal value does not mark a field as modified.<br/>
+     * <b>note:</b> only assignments by setters and constructors are tracked, collections or other mutable values
+     * modified in place (such as {@code getTags().add(x)}) are not, set the modified value back to mark it.
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    interface Tracked extends Meta {
+        /**
+         * @return field names in ordinal order
+         */
+        List<String> fieldNames();
+
+        /**
+         * @return a copy of ordinals of modified fields since created or last cleared, all fields are modified
+         * when created by the all arguments constructor.
+         */
+        BitSet dirtyFields();
+
+        /**
+         * @return any field modified
+         */
+        boolean isDirty();
+
+        /**
+         * mark all fields as unmodified, mostly after saved.
+         */
+        void clearDirty();
+    }
+
+    /**
+     * Snapshot is an entity provides immutable snapshots, which may generated by {@link Gene.Entity}.<br/>
+     * a snapshot shares unchanged fields and collections with the entity, modifications after a snapshot only copy
+     * the touched fields and collections. collections handed out by getters are copied into later snapshots, arrays are
+     * always copied in and out of snapshots. referenced entities are shared as is.
+     *
+     * @param <S> type of snapshot
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    interface Snapshot<S> extends Meta {
+        /**
+         * @return an immutable snapshot, same instance until modified
+         */
+        S snapshot();
+    }
+
     /**
      * Adaptor is an optional middle layer between Definition and Implement, which may generated by {@link Gene.Adapt}.
      */
     interface Adaptor extends Meta {
         String SUFFIX="Adaptor";
         String CLASS_SUFFIX="Adapter";
+
+        /**
+         * generated adaptors override this with the wrapped entity.
+         *
+         * @return the underlying entity
+         * @since 0.2.3
+         */
+        default java.lang.Object unwrap() {
+            return this;
+        }
     }
 
 }
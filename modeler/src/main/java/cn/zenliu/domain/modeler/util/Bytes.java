@@ -137,6 +137,26 @@ public final class Bytes {
         return this;
     }
 
+    /**
+     * write length and then each value as varint.
+     */
+    public Bytes put(int[] val) {
+        if (val == null || val.length == 0) return put(0);
+        put(val.length);
+        for (var v : val) put(v);
+        return this;
+    }
+
+    /**
+     * write length and then each value as varint.
+     */
+    public Bytes put(long[] val) {
+        if (val == null || val.length == 0) return put(0);
+        put(val.length);
+        for (var v : val) put(v);
+        return this;
+    }
+
     public Bytes put(String val) {
         if (val == null || val.isEmpty()) return put(0);
         var bs = val.getBytes(StandardCharsets.UTF_8);
@@ -158,7 +178,7 @@ public final class Bytes {
         int b;
         do {
             if (s >= 32) throw new IllegalStateException("data broken");
-            i |= (b = buf[index++]) & 0x7F << s;
+            i |= ((b = buf[index++]) & 0x7F) << s;
             s += 7;
         } while ((b & 0x80) != 0);
         return i;
@@ -199,6 +219,20 @@ public final class Bytes {
         return b;
     }
 
+    public int[] readInts() {
+        var n = readInt();
+        var a = new int[n];
+        for (var i = 0; i < n; i++) a[i] = readInt();
+        return a;
+    }
+
+    public long[] readLongs() {
+        var n = readInt();
+        var a = new long[n];
+        for (var i = 0; i < n; i++) a[i] = readLong();
+        return a;
+    }
+
     public String readString() {
         var bs = readBytes();
         if (bs.length == 0) return "";
@@ -16,10 +16,16 @@
 package cn.zenliu.domain.modeler.util;
 
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 import static java.lang.Character.*;
 
@@ -52,6 +58,45 @@ public interface Cases {
         SCREAMING,
     }
 
+    /**
+     * @param to  target case, must not {@link Type#UNKNOWN}
+     * @param src source
+     * @return converted result
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static CharSequence to(Type to, CharSequence src) {
+        return switch (to) {
+            case CAMEL -> toCamel(src);
+            case PASCAL -> toPascal(src);
+            case SNAKE -> toSnake(src);
+            case SCREAMING -> toScreaming(src);
+            case UNKNOWN -> throw new IllegalArgumentException("unknown case type can not be a target");
+        };
+    }
+
+    /**
+     * a memoized converter with default capacity of 1024 names.
+     *
+     * @see #cached(Type, Type, int)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static Converter cached(Type from, Type to) {
+        return cached(from, to, Converter.DEFAULT_SIZE);
+    }
+
+    /**
+     * a memoized converter for identifiers that converted repeatedly, such as column or json names.
+     *
+     * @param from source case, {@link Type#UNKNOWN} if not known
+     * @param to   target case
+     * @param size max cached names
+     * @return thread safe converter
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static Converter cached(Type from, Type to, int size) {
+        return new Converter(from, to, size);
+    }
+
     /**
      * @param src source
      * @return simple change first char to lower-case
@@ -82,6 +127,8 @@ public interface Cases {
    @ApiStatus.AvailableSince("0.1.3") static CharSequence toPascal(CharSequence src) {
         if (src == null || src.isEmpty()) return src;
         if (src.length() == 1) return String.valueOf(toUpperCase(src.charAt(0)));
+        var a = Ascii.convert(src, Type.PASCAL);
+        if (a != null) return a;
         var b = new StringBuilder();
         var w = new StringBuilder();
         for (var i = 0; i < src.length(); i++) {
@@ -118,6 +165,8 @@ public interface Cases {
   @ApiStatus.AvailableSince("0.1.3")  static CharSequence toCamel(CharSequence src) {
         if (src == null || src.isEmpty()) return src;
         if (src.length() == 1) return String.valueOf(toLowerCase(src.charAt(0)));
+        var a = Ascii.convert(src, Type.CAMEL);
+        if (a != null) return a;
         var b = new StringBuilder();
         var w = new StringBuilder();
         var pp = 0;
@@ -161,7 +210,8 @@ public interface Cases {
         }
         //final word
         if (!w.isEmpty()) {
-            b.append(toUpperCase(w.charAt(0))).append(w.subSequence(1, w.length()));
+            if (b.isEmpty()) addCamelWord(b, w);
+            else b.append(toUpperCase(w.charAt(0))).append(w.subSequence(1, w.length()));
         }
         return b;
     }
@@ -176,6 +226,8 @@ public interface Cases {
    @ApiStatus.AvailableSince("0.1.3") static CharSequence toSnake(CharSequence src) {
         if (src == null || src.isEmpty()) return src;
         if (src.length() == 1) return String.valueOf(toLowerCase(src.charAt(0)));
+        var a = Ascii.convert(src, Type.SNAKE);
+        if (a != null) return a;
 
 
         var b = new StringBuilder();
@@ -238,6 +290,8 @@ public interface Cases {
   @ApiStatus.AvailableSince("0.1.3")  static CharSequence toScreaming(CharSequence src) {
         if (src == null || src.isEmpty()) return src;
         if (src.length() == 1) return String.valueOf(toUpperCase(src.charAt(0)));
+        var a = Ascii.convert(src, Type.SCREAMING);
+        if (a != null) return a;
 
         var b = new StringBuilder();
         var w = new StringBuilder();
@@ -298,6 +352,8 @@ public interface Cases {
    @ApiStatus.AvailableSince("0.1.3") static List<String> toWords(CharSequence src) {
         if (src == null || src.isEmpty()) return Collections.emptyList();
         if (src.length() == 1) return Collections.singletonList(String.valueOf(toUpperCase(src.charAt(0))));
+        var a = Ascii.words(src);
+        if (a != null) return a;
 
         var b = new ArrayList<String>();
         var w = new StringBuilder();
@@ -402,4 +458,255 @@ public interface Cases {
         }
         return true;
     }
+
+    /**
+     * A bounded concurrent cache of converted names.<br/>
+     * When the cache is full, about a quarter of the entries are evicted in map iteration order, so the hot names are
+     * soon refilled while the cost of eviction stays amortized.
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    final class Converter implements Function<CharSequence, String> {
+        static final int DEFAULT_SIZE = 1024;
+        private final Type from;
+        private final Type to;
+        private final int size;
+        private final Map<String, String> cache;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        Converter(Type from, Type to, int size) {
+            if (to == null || to == Type.UNKNOWN)
+                throw new IllegalArgumentException("unknown case type can not be a target");
+            if (size <= 0) throw new IllegalArgumentException("cache size must be positive: " + size);
+            this.from = Objects.requireNonNull(from);
+            this.to = to;
+            this.size = size;
+            this.cache = new ConcurrentHashMap<>(Math.min(size, DEFAULT_SIZE));
+        }
+
+        @Override
+        public String apply(CharSequence src) {
+            if (src == null) return null;
+            var key = src.toString();
+            if (from == to || key.isEmpty()) return key;
+            var v = cache.get(key);
+            if (v != null) {
+                hits.increment();
+                return v;
+            }
+            misses.increment();
+            v = Cases.to(to, key).toString();
+            if (cache.size() >= size) evict();
+            cache.put(key, v);
+            return v;
+        }
+
+        private void evict() {
+            var n = Math.max(1, size >> 2);
+            var it = cache.keySet().iterator();
+            while (n-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+
+        public Type from() {
+            return from;
+        }
+
+        public Type to() {
+            return to;
+        }
+
+        public long hits() {
+            return hits.sum();
+        }
+
+        public long misses() {
+            return misses.sum();
+        }
+
+        public long evictions() {
+            return evictions.sum();
+        }
+
+        /**
+         * @return current cached names
+         */
+        public int size() {
+            return cache.size();
+        }
+
+        public void clear() {
+            cache.clear();
+        }
+
+        @Override
+        public String toString() {
+            return "Converter[" + from + "->" + to + ", size=" + cache.size() + "/" + size +
+                    ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "]";
+        }
+    }
+
+    /**
+     * ASCII only fast path of case conversions, which uses a classification table and writes into one pre-sized
+     * buffer. Any none ASCII character makes it return null, then the Unicode path should be used.
+     */
+    @ApiStatus.Internal
+    final class Ascii {
+        static final byte OTHER = 0;
+        static final byte LOWER = 1;
+        static final byte UPPER = 2;
+        static final byte[] TABLE = new byte[128];
+
+        static {
+            for (var c = 'a'; c <= 'z'; c++) TABLE[c] = LOWER;
+            for (var c = 'A'; c <= 'Z'; c++) TABLE[c] = UPPER;
+        }
+
+        private Ascii() {
+            throw new UnsupportedOperationException();
+        }
+
+        static char lower(char c) {
+            return TABLE[c] == UPPER ? (char) (c + 32) : c;
+        }
+
+        static char upper(char c) {
+            return TABLE[c] == LOWER ? (char) (c - 32) : c;
+        }
+
+        /**
+         * @param src source with length greater than 1
+         * @param to  one of PASCAL,CAMEL,SNAKE,SCREAMING
+         * @return null if src contains none ASCII character
+         */
+        static @Nullable String convert(CharSequence src, Type to) {
+            var n = src.length();
+            var buf = new char[to == Type.PASCAL || to == Type.CAMEL ? n : n << 1];
+            var len = to == Type.PASCAL ? splitPascal(src, buf) : split(src, to, buf, null);
+            return len < 0 ? null : new String(buf, 0, len);
+        }
+
+        /**
+         * @param src source with length greater than 1
+         * @return null if src contains none ASCII character
+         */
+        static @Nullable List<String> words(CharSequence src) {
+            var words = new ArrayList<String>();
+            return split(src, Type.UNKNOWN, null, words) < 0 ? null : words;
+        }
+
+        /**
+         * split words as {@link #toWords(CharSequence)} does, each word is a continuous range of src.
+         *
+         * @param words collect words instead of writing into buf when not null
+         * @return length written into buf, -1 when found none ASCII character
+         */
+        static int split(CharSequence src, Type to, char[] buf, @Nullable List<String> words) {
+            var pos = 0;
+            var ws = -1;//word start, -1 for empty word
+            var we = -1;//word end (exclusive)
+            var pp = 0;
+            var pc = false;
+            for (var i = 0; i < src.length(); i++) {
+                var c = src.charAt(i);
+                if (c >= 128) return -1;
+                switch (TABLE[c]) {
+                    case UPPER -> {
+                        if (i == 0) {//first initial
+                            pp++;
+                            pc = true;
+                            ws = 0;
+                            we = 1;
+                            continue;
+                        }
+                        if (pc && pp > 0) {//continue upper-case
+                            we = i + 1;
+                            pp++;
+                            continue;
+                        }
+                        if (ws >= 0) pos = word(src, ws, we, to, buf, pos, words);
+                        pp += pc ? 1 : 0;
+                        pc = true;
+                        ws = i;
+                        we = i + 1;
+                    }
+                    case LOWER -> {
+                        if (ws >= 0 && TABLE[src.charAt(we - 1)] == UPPER && we - 1 > ws) {
+                            pos = word(src, ws, we - 1, to, buf, pos, words);
+                            ws = we - 1;
+                        }
+                        pp = 0;
+                        pc = false;
+                        if (ws < 0) ws = i;
+                        we = i + 1;
+                    }
+                    default -> {
+                        pp = 0;
+                        pc = false;
+                        if (ws >= 0) pos = word(src, ws, we, to, buf, pos, words);
+                        ws = -1;
+                    }
+                }
+            }
+            //final word
+            if (ws >= 0) {
+                if (to == Type.CAMEL && pos > 0) {
+                    buf[pos++] = upper(src.charAt(ws));
+                    for (var i = ws + 1; i < we; i++) buf[pos++] = src.charAt(i);
+                } else pos = word(src, ws, we, to, buf, pos, words);
+            }
+            return pos;
+        }
+
+        static int word(CharSequence src, int from, int to, Type type, char[] buf, int pos, @Nullable List<String> words) {
+            if (words != null) {
+                words.add(src.subSequence(from, to).toString());
+                return pos;
+            }
+            switch (type) {
+                case CAMEL -> {
+                    var c = src.charAt(from);
+                    buf[pos] = pos == 0 ? lower(c) : upper(c);
+                    pos++;
+                    for (var i = from + 1; i < to; i++) buf[pos++] = lower(src.charAt(i));
+                }
+                case SNAKE -> {
+                    if (pos > 0) buf[pos++] = '_';
+                    for (var i = from; i < to; i++) buf[pos++] = lower(src.charAt(i));
+                }
+                case SCREAMING -> {
+                    if (pos > 0) buf[pos++] = '_';
+                    for (var i = from; i < to; i++) buf[pos++] = upper(src.charAt(i));
+                }
+                default -> throw new IllegalArgumentException("unsupported case " + type);
+            }
+            return pos;
+        }
+
+        /**
+         * split as {@link #toPascal(CharSequence)} does: words break at any upper-case or none letter character.
+         *
+         * @return length written into buf, -1 when found none ASCII character
+         */
+        static int splitPascal(CharSequence src, char[] buf) {
+            var pos = 0;
+            var first = true;
+            for (var i = 0; i < src.length(); i++) {
+                var c = src.charAt(i);
+                if (c >= 128) return -1;
+                var k = TABLE[c];
+                if (k == OTHER) {
+                    first = true;
+                    continue;
+                }
+                buf[pos++] = first || k == UPPER ? upper(c) : c;
+                first = false;
+            }
+            return pos;
+        }
+    }
 }
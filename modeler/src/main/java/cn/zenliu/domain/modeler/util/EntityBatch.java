@@ -0,0 +1,180 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.util;
+
+import cn.zenliu.domain.modeler.prototype.Meta;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A unit of work collects saves and deletes of {@link Meta.ObjectStyleEntity}, then flushes them grouped by entity class
+ * through a {@link Writer}.<br/>
+ * 1. an entity is queued once, the last operation wins.<br/>
+ * 2. every queued save is passed to the writer, which decides to skip or partially update a {@link Meta.Tracked} entity
+ * by its dirty fields, tracked entities are cleared after written.<br/>
+ * 3. groups are written in order of first queued, a failed group and the rest are kept for next flush.<br/>
+ * <pre>{@code
+ * try (var b = EntityBatch.open(writer)) {
+ *     user.save();          // generated implement queues into the opened batch
+ *     order.save(b);        // or pass the batch as transaction
+ * }
+ * }</pre>
+ *
+ * @author Zen.Liu
+ * @since 2023-05-29
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public final class EntityBatch implements AutoCloseable {
+    /**
+     * batch writer of one entity class.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        /**
+         * @param type    entity class
+         * @param saves   entities to save, in queued order, includes {@link Meta.Tracked} entities without modification
+         * @param deletes entities to delete, in queued order
+         */
+        void write(Class<?> type, List<Meta.ObjectStyleEntity> saves, List<Meta.ObjectStyleEntity> deletes);
+    }
+
+    private static final ThreadLocal<EntityBatch> CURRENT = new ThreadLocal<>();
+
+    private final Writer writer;
+    private final @Nullable EntityBatch parent;
+    private final Map<Class<?>, Group> groups = new LinkedHashMap<>();
+    private boolean opened;
+
+    public EntityBatch(Writer writer) {
+        this(writer, null);
+    }
+
+    private EntityBatch(Writer writer, @Nullable EntityBatch parent) {
+        this.writer = Objects.requireNonNull(writer);
+        this.parent = parent;
+    }
+
+    /**
+     * open a batch on current thread, which flushed when closed. batches can be nested.
+     */
+    public static EntityBatch open(Writer writer) {
+        var b = new EntityBatch(writer, CURRENT.get());
+        b.opened = true;
+        CURRENT.set(b);
+        return b;
+    }
+
+    /**
+     * @return opened batch of current thread, null if none
+     */
+    public static @Nullable EntityBatch current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return opened batch of current thread
+     * @throws IllegalStateException if none opened
+     */
+    public static EntityBatch require() {
+        var b = CURRENT.get();
+        if (b == null) throw new IllegalStateException("no EntityBatch opened on current thread");
+        return b;
+    }
+
+    public EntityBatch save(Meta.ObjectStyleEntity entity) {
+        group(entity).put(entity, true);
+        return this;
+    }
+
+    public EntityBatch delete(Meta.ObjectStyleEntity entity) {
+        group(entity).put(entity, false);
+        return this;
+    }
+
+    private Group group(Meta.ObjectStyleEntity entity) {
+        return groups.computeIfAbsent(entity.getClass(), x -> new Group());
+    }
+
+    /**
+     * @return count of queued operations
+     */
+    public int size() {
+        var n = 0;
+        for (var g : groups.values()) n += g.size();
+        return n;
+    }
+
+    /**
+     * write all queued operations.
+     */
+    public void flush() {
+        var it = groups.entrySet().iterator();
+        while (it.hasNext()) {
+            var e = it.next();
+            var g = e.getValue();
+            var saves = new ArrayList<Meta.ObjectStyleEntity>(g.size());
+            var deletes = new ArrayList<Meta.ObjectStyleEntity>();
+            for (int i = 0; i < g.entities.size(); i++) {
+                var x = g.entities.get(i);
+                if (g.saves.get(i)) saves.add(x);
+                else deletes.add(x);
+            }
+            if (!saves.isEmpty() || !deletes.isEmpty()) writer.write(e.getKey(), saves, deletes);
+            for (var x : saves) if (x instanceof Meta.Tracked t) t.clearDirty();
+            it.remove();
+        }
+    }
+
+    /**
+     * flush and restore the outer batch if opened by {@link #open(Writer)}.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            if (opened && CURRENT.get() == this) {
+                if (parent == null) CURRENT.remove();
+                else CURRENT.set(parent);
+            }
+        }
+    }
+
+    /**
+     * operations of one entity class, indexed by identity of entity.
+     */
+    private static final class Group {
+        final List<Meta.ObjectStyleEntity> entities = new ArrayList<>();
+        final BitSet saves = new BitSet();
+        final Map<Meta.ObjectStyleEntity, Integer> index = new IdentityHashMap<>();
+
+        void put(Meta.ObjectStyleEntity entity, boolean save) {
+            var i = index.get(entity);
+            if (i == null) {
+                i = entities.size();
+                entities.add(entity);
+                index.put(entity, i);
+            }
+            saves.set(i, save);
+        }
+
+        int size() {
+            return entities.size();
+        }
+    }
+}
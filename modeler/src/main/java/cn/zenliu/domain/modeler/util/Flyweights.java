@@ -0,0 +1,174 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Identity keyed caches of adaptors, which used by generated adaptors to reuse one wrapper for one entity.<br/>
+ * 1. {@link #weak(Class, Object, Function)} keeps wrappers in a global cache, both keys and wrappers are weakly referenced.<br/>
+ * 2. {@link #scoped(Class, Object, Function)} only keeps wrappers inside an {@link #open() opened} scope of current thread.<br/>
+ * both of them prefer the opened scope, null keys are never cached.
+ *
+ * @author Zen.Liu
+ * @since 2023-05-29
+ */
+@ApiStatus.AvailableSince("0.2.3")
+public final class Flyweights {
+    private Flyweights() {
+        throw new IllegalAccessError();
+    }
+
+    private static final ClassValue<Weak<Object, Object>> WEAK = new ClassValue<>() {
+        @Override
+        protected Weak<Object, Object> computeValue(Class<?> type) {
+            return new Weak<>();
+        }
+    };
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * @param type    adaptor type
+     * @param key     the entity
+     * @param factory create adaptor of entity
+     * @return cached adaptor of the entity in current scope or the global weak cache
+     * @implNote an opened scope takes priority over the global cache: inside a scope, the global cache is neither
+     * read nor filled, so the adaptor cached globally before the scope is not returned, and the one created inside
+     * the scope is dropped when it closed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> V weak(Class<? super V> type, @Nullable K key, Function<? super K, ? extends V> factory) {
+        if (key == null) return factory.apply(null);
+        var s = CURRENT.get();
+        if (s != null) return s.get(type, key, factory);
+        return (V) WEAK.get(type).get(key, (Function<Object, Object>) factory);
+    }
+
+    /**
+     * @param type    adaptor type
+     * @param key     the entity
+     * @param factory create adaptor of entity
+     * @return cached adaptor of the entity in current scope, or a new one if no scope opened
+     */
+    public static <K, V> V scoped(Class<? super V> type, @Nullable K key, Function<? super K, ? extends V> factory) {
+        var s = CURRENT.get();
+        if (key == null || s == null) return factory.apply(key);
+        return s.get(type, key, factory);
+    }
+
+    /**
+     * open a scope on current thread, which should be closed on the same thread. scopes can be nested.
+     *
+     * @return the scope
+     */
+    public static Scope open() {
+        var s = new Scope(CURRENT.get());
+        CURRENT.set(s);
+        return s;
+    }
+
+    /**
+     * a scope holds adaptors strongly until closed, so traversals of a graph inside a scope create one adaptor per node.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final @Nullable Scope parent;
+        private final Map<Class<?>, IdentityHashMap<Object, Object>> caches = new HashMap<>();
+
+        private Scope(@Nullable Scope parent) {
+            this.parent = parent;
+        }
+
+        @SuppressWarnings("unchecked")
+        <K, V> V get(Class<? super V> type, K key, Function<? super K, ? extends V> factory) {
+            var m = caches.computeIfAbsent(type, x -> new IdentityHashMap<>());
+            var v = m.get(key);
+            if (v == null) {
+                v = factory.apply(key);
+                m.put(key, v);
+            }
+            return (V) v;
+        }
+
+        @Override
+        public void close() {
+            caches.clear();
+            if (CURRENT.get() == this) {
+                if (parent == null) CURRENT.remove();
+                else CURRENT.set(parent);
+            }
+        }
+    }
+
+    /**
+     * a concurrent cache with weak identity keys and weak values, as values of adaptors always reference the keys.
+     */
+    static final class Weak<K, V> {
+        private final ConcurrentHashMap<Ref<K>, WeakReference<V>> map = new ConcurrentHashMap<>();
+        private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+        V get(K key, Function<? super K, ? extends V> factory) {
+            expunge();
+            var r = map.get(new Ref<>(key, null));
+            var v = r == null ? null : r.get();
+            if (v != null) return v;
+            V n = factory.apply(key);
+            var ref = new WeakReference<V>(n);
+            var k = new Ref<>(key, queue);
+            while (true) {
+                var p = map.putIfAbsent(k, ref);
+                if (p == null) return n;
+                v = p.get();
+                if (v != null) return v;
+                if (map.replace(k, p, ref)) return n;
+            }
+        }
+
+        private void expunge() {
+            for (Object x; (x = queue.poll()) != null; ) map.remove(x);
+        }
+
+        static final class Ref<K> extends WeakReference<K> {
+            private final int hash;
+
+            Ref(K referent, @Nullable ReferenceQueue<? super K> q) {
+                super(referent, q);
+                this.hash = System.identityHashCode(referent);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) return true;
+                if (!(o instanceof Ref<?> r)) return false;
+                var v = get();
+                return v != null && v == r.get();
+            }
+        }
+    }
+}
@@ -15,14 +15,19 @@
 
 package cn.zenliu.domain.modeler.util;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
- * Those are eager projections.
+ * Those are eager projections, except the views.<br/>
+ * <b>note:</b> use {@link #into(Function, Iterable, Collection)} or a {@link Projection} to avoid intermediate collections,
+ * or a view such as {@link #listView(Function, List)} to map elements on access.
  * @author Zen.Liu
  * @since 2023-05-03
  */
@@ -54,4 +59,383 @@ public interface Projections {
     static <K, V, T, E> Map<T, E> mapKey(Function<K, T> fnKey, Function<V, E> fnVal, Map<K, V> s) {
         return s == null ? null : s.entrySet().stream().collect(Collectors.toMap(e -> fnKey.apply(e.getKey()), e -> fnVal.apply(e.getValue())));
     }
+
+    @ApiStatus.AvailableSince("0.2.3")
+    static <K, V, T, E> Map<T, E> map(Function<K, T> fnKey, Function<V, E> fnVal, Map<K, V> s) {
+        return mapKey(fnKey, fnVal, s);
+    }
+
+    //region Views
+
+    /**
+     * a read-only view maps element on each access, without copy.
+     *
+     * @return view, null if source is null
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> List<E> listView(Function<T, E> fn, List<T> s) {
+        if (s == null) return null;
+        if (s instanceof RandomAccess) {
+            final class View extends AbstractList<E> implements RandomAccess {
+                @Override
+                public E get(int index) {
+                    return fn.apply(s.get(index));
+                }
+
+                @Override
+                public int size() {
+                    return s.size();
+                }
+            }
+            return new View();
+        }
+        return new AbstractSequentialList<>() {
+            @Override
+            public ListIterator<E> listIterator(int index) {
+                var it = s.listIterator(index);
+                return new ListIterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public E next() {
+                        return fn.apply(it.next());
+                    }
+
+                    @Override
+                    public boolean hasPrevious() {
+                        return it.hasPrevious();
+                    }
+
+                    @Override
+                    public E previous() {
+                        return fn.apply(it.previous());
+                    }
+
+                    @Override
+                    public int nextIndex() {
+                        return it.nextIndex();
+                    }
+
+                    @Override
+                    public int previousIndex() {
+                        return it.previousIndex();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public void set(E e) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public void add(E e) {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return s.size();
+            }
+        };
+    }
+
+    /**
+     * a read-only view maps element on each access, without copy.<br/>
+     * <b>note:</b> the projection should be injective, or size of the view is not the count of distinct elements.
+     *
+     * @return view, null if source is null
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> Set<E> setView(Function<T, E> fn, Set<T> s) {
+        if (s == null) return null;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<E> iterator() {
+                return mapped(fn, s.iterator());
+            }
+
+            @Override
+            public int size() {
+                return s.size();
+            }
+        };
+    }
+
+    /**
+     * a read-only list view of a set, source elements are captured on first access by index and mapped on each access.
+     *
+     * @return view, null if source is null
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> List<E> setToListView(Function<T, E> fn, Set<T> s) {
+        if (s == null) return null;
+        final class View extends AbstractList<E> implements RandomAccess {
+            private Object[] elements;
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public E get(int index) {
+                if (elements == null) elements = s.toArray();
+                return fn.apply((T) elements[index]);
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return elements == null ? mapped(fn, s.iterator()) : super.iterator();
+            }
+
+            @Override
+            public int size() {
+                return elements == null ? s.size() : elements.length;
+            }
+        }
+        return new View();
+    }
+
+    /**
+     * a read-only view maps value on each access, without copy.
+     *
+     * @return view, null if source is null
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <K, T, E> Map<K, E> mapValueView(Function<T, E> fn, Map<K, T> s) {
+        if (s == null) return null;
+        return new AbstractMap<>() {
+            @Override
+            public E get(Object key) {
+                var v = s.get(key);
+                return v == null && !s.containsKey(key) ? null : fn.apply(v);
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return s.containsKey(key);
+            }
+
+            @Override
+            public int size() {
+                return s.size();
+            }
+
+            @Override
+            public Set<Entry<K, E>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<K, E>> iterator() {
+                        return mapped(e -> new SimpleImmutableEntry<>(e.getKey(), fn.apply(e.getValue())), s.entrySet().iterator());
+                    }
+
+                    @Override
+                    public int size() {
+                        return s.size();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * a read-only iterator maps element on each access.
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> Iterator<E> mapped(Function<? super T, ? extends E> fn, Iterator<T> it) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return fn.apply(it.next());
+            }
+        };
+    }
+    //endregion
+
+    /**
+     * project each element into a consumer, without any intermediate collection.
+     *
+     * @param fn   projection
+     * @param s    source, nothing happens if null
+     * @param sink receiver of projected elements
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> void into(Function<T, E> fn, Iterable<T> s, Consumer<? super E> sink) {
+        if (s == null) return;
+        for (var t : s) sink.accept(fn.apply(t));
+    }
+
+    /**
+     * project each element into a caller-supplied collection.
+     *
+     * @param fn   projection
+     * @param s    source, nothing happens if null
+     * @param sink target collection
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T, E> void into(Function<T, E> fn, Iterable<T> s, Collection<? super E> sink) {
+        if (s == null) return;
+        for (var t : s) sink.add(fn.apply(t));
+    }
+
+    /**
+     * extract primitive values without boxing, such as ids for a SQL {@code IN} batch.
+     *
+     * @param fn extractor
+     * @param s  source
+     * @return array in source iteration order, null if source is null
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> long[] toLongArray(ToLongFunction<T> fn, Collection<T> s) {
+        if (s == null) return null;
+        var a = new long[s.size()];
+        var i = 0;
+        for (var t : s) a[i++] = fn.applyAsLong(t);
+        return i == a.length ? a : Arrays.copyOf(a, i);
+    }
+
+    /**
+     * @see #toLongArray(ToLongFunction, Collection)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> int[] toIntArray(ToIntFunction<T> fn, Collection<T> s) {
+        if (s == null) return null;
+        var a = new int[s.size()];
+        var i = 0;
+        for (var t : s) a[i++] = fn.applyAsInt(t);
+        return i == a.length ? a : Arrays.copyOf(a, i);
+    }
+
+    /**
+     * @return ascending sorted array, null if source is null
+     * @see #toLongArray(ToLongFunction, Collection)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> long[] toSortedLongArray(ToLongFunction<T> fn, Collection<T> s) {
+        var a = toLongArray(fn, s);
+        if (a != null) Arrays.sort(a);
+        return a;
+    }
+
+    /**
+     * @return ascending sorted array, null if source is null
+     * @see #toIntArray(ToIntFunction, Collection)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> int[] toSortedIntArray(ToIntFunction<T> fn, Collection<T> s) {
+        var a = toIntArray(fn, s);
+        if (a != null) Arrays.sort(a);
+        return a;
+    }
+
+    /**
+     * @return ascending sorted array without duplicates, null if source is null
+     * @see #toLongArray(ToLongFunction, Collection)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> long[] toDistinctLongArray(ToLongFunction<T> fn, Collection<T> s) {
+        var a = toSortedLongArray(fn, s);
+        if (a == null || a.length < 2) return a;
+        var n = 1;
+        for (var i = 1; i < a.length; i++) {
+            if (a[i] != a[n - 1]) a[n++] = a[i];
+        }
+        return n == a.length ? a : Arrays.copyOf(a, n);
+    }
+
+    /**
+     * @return ascending sorted array without duplicates, null if source is null
+     * @see #toIntArray(ToIntFunction, Collection)
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    static <T> int[] toDistinctIntArray(ToIntFunction<T> fn, Collection<T> s) {
+        var a = toSortedIntArray(fn, s);
+        if (a == null || a.length < 2) return a;
+        var n = 1;
+        for (var i = 1; i < a.length; i++) {
+            if (a[i] != a[n - 1]) a[n++] = a[i];
+        }
+        return n == a.length ? a : Arrays.copyOf(a, n);
+    }
+
+    /**
+     * a fused projection: composed functions are applied per element in one pass, so chained mappings only allocate
+     * the final result. collected results are always unmodifiable, use {@link #into(Iterable, Collection)} to fill a
+     * mutable collection.
+     * <pre>
+     * {@code
+     * var ids = Projection.of(Order::getCustomer).then(Customer::getId).list(orders);
+     * }
+     * </pre>
+     *
+     * @param <T> source element type
+     * @param <R> result element type
+     */
+    @ApiStatus.AvailableSince("0.2.3")
+    final class Projection<T, R> implements Function<T, R> {
+        private final Function<T, R> fn;
+
+        private Projection(Function<T, R> fn) {
+            this.fn = Objects.requireNonNull(fn);
+        }
+
+        public static <T, R> Projection<T, R> of(Function<T, R> fn) {
+            return fn instanceof Projection<T, R> p ? p : new Projection<>(fn);
+        }
+
+        public static <T> Projection<T, T> identity() {
+            return new Projection<>(Function.identity());
+        }
+
+        /**
+         * @param next the following mapping
+         * @return a new projection applies this and then next
+         */
+        public <V> Projection<T, V> then(Function<? super R, ? extends V> next) {
+            return new Projection<>(fn.andThen(next));
+        }
+
+        @Override
+        public R apply(T t) {
+            return fn.apply(t);
+        }
+
+        public void into(Iterable<T> s, Consumer<? super R> sink) {
+            Projections.into(fn, s, sink);
+        }
+
+        public void into(Iterable<T> s, Collection<? super R> sink) {
+            Projections.into(fn, s, sink);
+        }
+
+        /**
+         * @return an unmodifiable list, null if source is null.
+         */
+        public List<R> list(Collection<T> s) {
+            if (s == null) return null;
+            var l = new ArrayList<R>(s.size());
+            into(s, l);
+            return Collections.unmodifiableList(l);
+        }
+
+        /**
+         * @return an unmodifiable set, null if source is null.
+         */
+        public Set<R> set(Collection<T> s) {
+            if (s == null) return null;
+            var l = new HashSet<R>(Math.max((int) (s.size() / .75f) + 1, 16));
+            into(s, l);
+            return Collections.unmodifiableSet(l);
+        }
+    }
 }
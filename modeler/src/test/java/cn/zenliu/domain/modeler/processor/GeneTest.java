@@ -17,30 +17,65 @@ package cn.zenliu.domain.modeler.processor;
 
 import cn.zenliu.domain.modeler.processor.safer.Configurer;
 import cn.zenliu.domain.modeler.processor.safer.ModelerProcessor;
+import cn.zenliu.domain.modeler.processor.safer.Profiler;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
 import lombok.SneakyThrows;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GeneTest {
     static final boolean print =
             System.getProperties().containsKey("sun.java.command") &&
                     System.getProperties().getProperty("sun.java.command").contains("com.intellij");
 
+    /**
+     * config file of tests, must be in the working directory to be found by {@link Configurer}.
+     */
+    static final Path CONFIG = Paths.get(Configurer.FILE_NAME);
+    /**
+     * content of config file existed before tests
+     */
+    static @Nullable String existed;
+
+    @SneakyThrows
+    @BeforeAll
+    static void keepConfig() {
+        existed = Files.isRegularFile(CONFIG) ? Files.readString(CONFIG) : null;
+    }
+
+    @SneakyThrows
+    @AfterAll
+    static void restoreConfig() {
+        if (existed == null) Files.deleteIfExists(CONFIG);
+        else Files.writeString(CONFIG, existed, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
     @SneakyThrows
     static void config(String content) {
-        Files.writeString(Paths.get(Configurer.FILE_NAME), ("debug=%s\n%s\n").formatted(print, content), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        Files.writeString(CONFIG, ("debug=%s\n%s\n").formatted(print, content), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
     @SneakyThrows
@@ -95,6 +130,258 @@ class GeneTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    void geneFieldsCases() {
+        config("""
+                proc.fields.cases=snake,screaming
+                proc.fields.ordinal=true
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene.Fields;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                          @Fields
+                          public interface MetaTest extends Meta.Object {
+                               Long getId();
+                               String getUserName();
+                          }
+                        """));
+        assertThat(compilation).succeededWithoutWarnings();
+        print(compilation);
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestFields.java")
+                .contentsAsUtf8String()
+                .contains("USERNAME_SNAKE = \"user_name\"");
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestFields.java")
+                .contentsAsUtf8String()
+                .contains("case \"userName\", \"user_name\", \"USER_NAME\" -> 1;");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneFixedTimestamp() {
+        config("""
+                timestamp=fixed
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene.Fields;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                          @Fields
+                          public interface MetaTest extends Meta.Object {
+                               Long getId();
+                          }
+                        """));
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestFields.java")
+                .contentsAsUtf8String()
+                .contains("timestamp = 0L");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneReproducible() {
+        config("""
+                reproducible=true
+                timestamp=fixed
+                proc.fields.ordinal=true
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                proc.entity.impl=true
+                proc.entity.dirty=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                          @Gene.Fields
+                          @Gene.Entity
+                          public interface MetaTest extends Meta.Object {
+                               String getName();
+                               Long getId();
+                          }
+                        """));
+        assertThat(compilation).succeededWithoutWarnings();
+        var content = compilation.generatedSourceFile("some.pack.MetaTestFields").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("timestamp = 0L"), content);
+        assertTrue(content.indexOf("String ID =") < content.indexOf("String NAME ="), content);
+        //ordinals keep the source order
+        assertTrue(content.contains("case \"name\" -> 0;"), content);
+        assertTrue(content.contains("case \"id\" -> 1;"), content);
+        content = compilation.generatedSourceFile("some.pack.MetaTestImpl").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("List.of(\"name\", \"id\")"), content);
+    }
+
+    @Test
+    void geneAggregating() {
+        config("proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields");
+        assertEquals(Set.of(ModelerProcessor.GRADLE_AGGREGATING), new ModelerProcessor().getSupportedOptions());
+    }
+
+    @SneakyThrows
+    @Test
+    void geneScanIndex() {
+        config("proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields");
+        new ModelerProcessor();
+        try (var s = Files.list(Paths.get("target", Configurer.OUTPUT_DIR))) {
+            assertTrue(s.anyMatch(x -> x.getFileName().toString().matches("scan-.+\\.idx")));
+        }
+    }
+
+    @SneakyThrows
+    @Test
+    void geneWildcard() {
+        config("""
+                proc.fields.accept=*
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene.Fields;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                          @Fields
+                          public interface MetaTest extends Meta.Object {
+                               Long getId();
+                          }
+                        """), JavaFileObjects.forSourceString("some.pack.Plain", """
+                        package some.pack;
+
+                        class Plain {
+                        }
+                        """));
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation).generatedSourceFile("some.pack.MetaTestFields");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneProfile() {
+        config("""
+                profile=csv
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                proc.mutate.processor=cn.zenliu.domain.modeler.processor.GeneMutate
+                """);
+        var dir = project("gene-profile");
+        source(dir, "some/pack/MetaTest.java", """
+                package some.pack;
+                import cn.zenliu.domain.modeler.annotation.Gene;
+                import cn.zenliu.domain.modeler.prototype.Meta;
+                @Gene.Fields
+                @Gene.Mutate
+                public interface MetaTest extends Meta.Object {
+                    Long getId();
+                }
+                """);
+        assertTrue(compileFiles(dir));
+        assertTrue(Files.isRegularFile(dir.resolve("generated/some/pack/MetaTestMutate.java")));
+        assertFalse(Files.exists(dir.resolve("classes/META-INF/modeler")));
+        var rows = Files.readAllLines(dir.resolve(Configurer.OUTPUT_DIR).resolve(Profiler.FILE_NAME + ".csv"));
+        assertTrue(rows.stream().anyMatch(x -> x.startsWith("GeneFields,some.pack.MetaTest,GENERATE,1,")), rows.toString());
+        var fields = rows.stream().filter(x -> x.startsWith("GeneFields,")).toList();
+        assertTrue(fields.get(fields.size() - 1).startsWith("GeneFields,*,"), fields.toString());
+    }
+
+    @Test
+    void geneProfileInvalid() {
+        config("""
+                profile=xml
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                          @Gene.Fields
+                          public interface MetaTest extends Meta.Object {
+                               Long getId();
+                          }
+                        """));
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadWarningContaining("invalid profile 'xml'");
+        assertThat(compilation).generatedSourceFile("some.pack.MetaTestFields");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneResolvedConfig() {
+        config("""
+                proc.fields.cases=snake
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        var dir = project("gene-config");
+        for (var pkg : List.of("a", "b")) {
+            source(dir, "some/" + pkg + "/MetaTest.java", """
+                    package some.%s;
+                    import cn.zenliu.domain.modeler.annotation.Gene.Fields;
+                    import cn.zenliu.domain.modeler.prototype.Meta;
+                    @Fields
+                    public interface MetaTest extends Meta.Object {
+                        String getUserName();
+                    }
+                    """.formatted(pkg));
+        }
+        //source directories resolve configs by the nearest module
+        assertTrue(compileFiles(dir));
+        for (var pkg : List.of("a", "b"))
+            assertTrue(Files.readString(dir.resolve("generated/some/" + pkg + "/MetaTestFields.java")).contains("USERNAME_SNAKE"));
+        config("""
+                proc.fields.cases=screaming
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                """);
+        assertTrue(compileFiles(dir));
+        var content = Files.readString(dir.resolve("generated/some/a/MetaTestFields.java"));
+        assertTrue(content.contains("USERNAME_SCREAMING") && !content.contains("USERNAME_SNAKE"), content);
+    }
+
+    @SneakyThrows
+    @Test
+    void geneOptionsPerProcessor() {
+        config("""
+                proc.fields.cases=snake
+                proc.fields.processor=cn.zenliu.domain.modeler.processor.GeneFields
+                proc.entity.impl=true
+                proc.entity.dirty=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                         @Gene.Fields
+                         @Gene.Entity
+                         public interface MetaTest extends Meta.Object {
+                            String getUserName();
+                         }
+                        """));
+        assertThat(compilation).succeededWithoutWarnings();
+        //processors compile their own options from one config
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestFields.java")
+                .contentsAsUtf8String()
+                .contains("USERNAME_SNAKE = \"user_name\"");
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestImpl.java")
+                .contentsAsUtf8String()
+                .contains("Meta.Tracked");
+    }
+
     @SneakyThrows
     @Test
     void geneFieldsOfEntity() {
@@ -334,6 +621,244 @@ class GeneTest {
                 .isNotEmpty();
     }
 
+    @SneakyThrows
+    @Test
+    void geneEntityImpl() {
+        config("""
+                proc.entity.chain=true
+                proc.entity.impl=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.annotation.Mark;
+                         import cn.zenliu.domain.modeler.annotation.Mode;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                         import java.util.List;
+
+                          public interface MetaTest<T,X extends MetaTest<T,X>> extends Meta.Trait {
+                             T getId();
+                             X getParent();
+                             List<X> getChildren();
+                             @Gene.Entity
+                             interface Sub<T> extends MetaTest<T,Sub<T>>,Meta.Object{
+                                @Mark.Unique
+                                String getName();
+                                @Mark.Unique
+                                double getScore();
+                                @Mode.ReadOnly
+                                boolean isRoot();
+                             }
+                          }
+                        """), JavaFileObjects.forSourceString("some.pack.Use", """
+                        package some.pack;
+
+                        class Use {
+                            static boolean same() {
+                                var a = new SubImpl<Long>();
+                                a.setName("a").setScore(1.0).setId(1L);
+                                var b = new SubImpl<Long>(2L, null, null, "a", 1.0, true);
+                                return a.equals(b) && a.hashCode() == b.hashCode();
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        var content = compilation.generatedSourceFile("some.pack.SubImpl").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("public final class SubImpl<T> implements SubEntity<T>"), content);
+        assertTrue(content.contains("Objects.equals(name, x.name)"), content);
+        assertTrue(content.contains("Double.compare(score, x.score) == 0"), content);
+        assertTrue(!content.contains("setRoot"), content);
+    }
+
+    @SneakyThrows
+    @Test
+    void geneEntityDirty() {
+        config("""
+                proc.entity.impl=true
+                proc.entity.dirty=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+
+                         @Gene.Entity
+                         public interface MetaTest extends Meta.Object {
+                            long getId();
+                            String getName();
+                            double getScore();
+                            float getRate();
+                         }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        var content = compilation.generatedSourceFile("some.pack.MetaTestImpl").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("implements MetaTestEntity, cn.zenliu.domain.modeler.prototype.Meta.Tracked"), content);
+        assertTrue(content.contains("if (id != v) {"), content);
+        assertTrue(content.contains("if (!Objects.equals(name, v)) {"), content);
+        assertTrue(content.contains("if (Double.compare(score, v) != 0) {"), content);
+        assertTrue(content.contains("if (Float.compare(rate, v) != 0) {"), content);
+        assertTrue(content.contains("this.dirty$ |= 0x2L;"), content);
+        assertTrue(content.contains("this.dirty$ = 0xfL;"), content);
+        assertTrue(content.contains("List.of(\"id\", \"name\", \"score\", \"rate\")"), content);
+    }
+
+    @SneakyThrows
+    @Test
+    void geneEntityObjectBatch() {
+        config("""
+                proc.entity.impl=true
+                proc.entity.object=true
+                proc.entity.dirty=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+
+                         @Gene.Entity
+                         public interface MetaTest extends Meta.Object {
+                            String getName();
+                         }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestImpl.java")
+                .contentsAsUtf8String()
+                .contains("save(EntityBatch.current());");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneEntitySnapshot() {
+        config("""
+                proc.entity.impl=true
+                proc.entity.dirty=true
+                proc.entity.snapshot=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+                         import java.util.List;
+
+                         @Gene.Entity
+                         public interface MetaTest<T> extends Meta.Object {
+                            T getId();
+                            List<String> getTags();
+                            int[] getScores();
+                         }
+                        """), JavaFileObjects.forSourceString("some.pack.Use", """
+                        package some.pack;
+                        import java.util.ArrayList;
+                        import java.util.List;
+
+                        class Use {
+                            static String check() {
+                                var out = new StringBuilder();
+                                var init = new ArrayList<>(List.of("a"));
+                                var e = new MetaTestImpl<Long>(1L, init, new int[]{1});
+                                // aliases of constructor arguments
+                                init.add("b");
+                                var s = e.snapshot();
+                                out.append(s.getTags()).append(';');
+                                // aliases handed out before snapshot
+                                var tags = e.getTags();
+                                var scores = e.getScores();
+                                s = e.snapshot();
+                                tags.add("c");
+                                scores[0] = 2;
+                                out.append(s.getTags()).append(s.getScores()[0]).append(';');
+                                // modified after snapshot through the getter
+                                s = e.snapshot();
+                                e.getTags().add("d");
+                                out.append(s.getTags()).append(e.getTags()).append(';');
+                                // arrays of snapshot are not the live one
+                                s.getScores()[0] = 3;
+                                out.append(e.getScores()[0]).append(s.getScores()[0]).append(';');
+                                // a snapshot is reused until modified or escaped
+                                var f = new MetaTestImpl<Long>(2L, List.of(), null);
+                                out.append(f.snapshot() == f.snapshot());
+                                f.getTags();
+                                out.append(f.snapshot() == f.snapshot());
+                                return out.toString();
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        var content = compilation.generatedSourceFile("some.pack.MetaTestImpl").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("implements MetaTestEntity<T>, cn.zenliu.domain.modeler.prototype.Meta.Tracked, cn.zenliu.domain.modeler.prototype.Meta.Snapshot<MetaTest<T>>"), content);
+        assertTrue(content.contains("if (tags != null) tags = new ArrayList<>(tags);"), content);
+        //collections are copied when assigned, as the caller may keep modifying them
+        assertTrue(content.contains("this.tags = tags == null ? null : new ArrayList<>(tags);"), content);
+        assertTrue(content.contains("this.tags = v == null ? null : new ArrayList<>(v);"), content);
+        assertTrue(content.contains("this.snapshot$ = s = new Frozen<>(id, tags, scores, escaped$);"), content);
+        //snapshots are isolated from the entity
+        var check = load(compilation, "some.pack.Use").getDeclaredMethod("check");
+        check.setAccessible(true);
+        assertEquals("[a];[a]1;[a, c][a, c, d];22;truefalse", check.invoke(null));
+    }
+
+    @SneakyThrows
+    @Test
+    void geneEntityTable() {
+        config("""
+                proc.entity.table=true
+                proc.entity.processor=cn.zenliu.domain.modeler.processor.GeneEntity
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                         package some.pack;
+                         import cn.zenliu.domain.modeler.annotation.Gene;
+                         import cn.zenliu.domain.modeler.prototype.Meta;
+
+                         @Gene.Entity
+                         public interface MetaTest<T> extends Meta.Object {
+                            long getId();
+                            String getName();
+                            int[] getScores();
+                            T getValue();
+                         }
+                        """), JavaFileObjects.forSourceString("some.pack.Use", """
+                        package some.pack;
+
+                        class Use {
+                            static long sum(MetaTestTable<String> t, MetaTest<String> e) {
+                                t.append(e);
+                                t.cursor(0).setId(2L);
+                                var big = t.filter(c -> c.getId() > 1);
+                                var sum = new long[1];
+                                big.forEach(c -> sum[0] += c.getId() + c.getValue().length());
+                                return sum[0];
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        var content = compilation.generatedSourceFile("some.pack.MetaTestTable").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("private long[] id;"), content);
+        assertTrue(content.contains("this.scores = new int[capacity][];"), content);
+        assertTrue(content.contains("private java.lang.Object[] value;"), content);
+        assertTrue(content.contains("public final class Cursor implements MetaTestEntity<T>"), content);
+        assertTrue(content.contains("return (T) MetaTestTable.this.value[row];"), content);
+    }
+
     @SneakyThrows
     @Test
     void geneAdaptor() {
@@ -390,6 +915,313 @@ class GeneTest {
         print(compilation);
 
     }
+
+    @SneakyThrows
+    @Test
+    void geneAdaptorLazy() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.lazy=true
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(ADAPTOR_SOURCE);
+        assertThat(compilation).succeededWithoutWarnings();
+        print(compilation);
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestAdapter.java")
+                .contentsAsUtf8String()
+                .contains("Projections.listView(");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneAdaptorMemoize() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.memoize=true
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(ADAPTOR_SOURCE);
+        assertThat(compilation).succeededWithoutWarnings();
+        print(compilation);
+        var content = compilation.generatedSourceFile("some.pack.MetaTestAdapter").orElseThrow().getCharContent(true).toString();
+        assertTrue(content.contains("private volatile MetaTestAdapter<T> memo$getParent;"), content);
+        assertTrue(content.contains("private volatile List<MetaTestAdapter<T>> memo$getChildren;"), content);
+        assertTrue(!content.contains("memo$getId"), content);
+    }
+
+    @SneakyThrows
+    @Test
+    void geneAdaptorFlyweight() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.interface=true
+                proc.adaptor.flyweight=weak
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(ADAPTOR_SOURCE);
+        assertThat(compilation).succeededWithoutWarnings();
+        print(compilation);
+        var cls = compilation.generatedSourceFile("some.pack.MetaTestAdapter").orElseThrow().getCharContent(true).toString();
+        assertTrue(cls.contains("return Flyweights.weak(MetaTestAdapter.class, entity, MetaTestAdapter::new);"), cls);
+        assertTrue(cls.contains("public MetaTest.Da<T> unwrap()"), cls);
+        var face = compilation.generatedSourceFile("some.pack.MetaTestAdaptor").orElseThrow().getCharContent(true).toString();
+        assertTrue(face.contains("return Flyweights.weak(MetaTestAdaptor.class, entity, x -> () -> x);"), face);
+        assertTrue(face.contains("MetaTestAdaptor.of(entity().getParent())"), face);
+    }
+
+    @SneakyThrows
+    @Test
+    void geneAdaptorBulk() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.interface=true
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(ADAPTOR_SOURCE, JavaFileObjects.forSourceString("some.pack.Use", """
+                        package some.pack;
+
+                        import java.util.List;
+
+                        class Use {
+                            static List<MetaTestAdapter<Long>> all(List<MetaTest.Da<Long>> src) {
+                                MetaTestAdapter<Long>[] a = MetaTestAdapter.ofAll(src.toArray(MetaTest.Da[]::new));
+                                List<MetaTestAdaptor<Long>> b = MetaTestAdaptor.ofAll(src.stream());
+                                List<MetaTestAdaptor<Long>> c = MetaTestAdaptor.viewAll(src);
+                                return MetaTestAdapter.ofAll(src);
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeeded();
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/MetaTestAdapter.java")
+                .contentsAsUtf8String()
+                .contains("var out = new ArrayList<MetaTestAdapter<T>>(entities.size());");
+    }
+
+    @SneakyThrows
+    @Test
+    void geneAdaptorMappers() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("some.pack.Code", """
+                        package some.pack;
+
+                        import cn.zenliu.domain.modeler.annotation.Gene.Adapt;
+                        import cn.zenliu.domain.modeler.prototype.Meta;
+
+                        public interface Code extends Meta.Object {
+                            Integer getCode();
+
+                            final class Conv {
+                                public static Integer toInt(String v) {
+                                    return Integer.valueOf(v);
+                                }
+
+                                public static Long toLong(String v) {
+                                    return Long.valueOf(v);
+                                }
+                            }
+
+                            @Adapt(value = Code.class, mappers = Conv.class)
+                            class Db {
+                                String code;
+
+                                public String getCode() {
+                                    return code;
+                                }
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/CodeAdapter.java")
+                .contentsAsUtf8String()
+                .contains("return Code.Conv.toInt(entity.getCode());");
+    }
+
+    @Test
+    void geneAdaptorGenericMappers() {
+        config("""
+                proc.adaptor.class=true
+                proc.adaptor.processor=cn.zenliu.domain.modeler.processor.GeneAdaptor
+                """);
+        var compilation = javac()
+                .withProcessors(new ModelerProcessor())
+                .compile(JavaFileObjects.forSourceString("some.pack.Code", """
+                        package some.pack;
+
+                        import cn.zenliu.domain.modeler.annotation.Gene.Adapt;
+                        import cn.zenliu.domain.modeler.prototype.Meta;
+                        import java.util.List;
+                        import java.util.Optional;
+
+                        public interface Code extends Meta.Object {
+                            List<Integer> getIds();
+
+                            Optional<Integer> getFirst();
+
+                            final class Conv {
+                                public static <T> List<T> same(List<T> v) {
+                                    return v;
+                                }
+
+                                public static List<Integer> ids(List<String> v) {
+                                    return v.stream().map(Integer::valueOf).toList();
+                                }
+
+                                public static <T> Optional<T> first(List<T> v) {
+                                    return v.stream().findFirst();
+                                }
+                            }
+
+                            @Adapt(value = Code.class, mappers = Conv.class)
+                            class Db {
+                                List<String> ids;
+                                List<Integer> first;
+
+                                public List<String> getIds() {
+                                    return ids;
+                                }
+
+                                public List<Integer> getFirst() {
+                                    return first;
+                                }
+                            }
+                        }
+                        """));
+        print(compilation);
+        assertThat(compilation).succeededWithoutWarnings();
+        var src = assertThat(compilation)
+                .generatedFile(StandardLocation.SOURCE_OUTPUT, "some/pack/CodeAdapter.java")
+                .contentsAsUtf8String();
+        src.doesNotContain("Code.Conv.same(");
+        src.contains("return Code.Conv.ids(entity.getIds());");
+        src.contains("return Code.Conv.first(entity.getFirst());");
+    }
+
+    static final JavaFileObject ADAPTOR_SOURCE = JavaFileObjects.forSourceString("MetaTest", """
+            package some.pack;
+
+            import cn.zenliu.domain.modeler.annotation.Gene;
+            import cn.zenliu.domain.modeler.annotation.Gene.Adapt;
+            import cn.zenliu.domain.modeler.annotation.Mode;
+            import cn.zenliu.domain.modeler.prototype.Meta;
+
+            import java.util.List;
+
+            public interface MetaTest<T,X extends MetaTest<T,X>> extends Meta.Object {
+                T getId();
+                X getParent();
+                List<X> getChildren();
+
+                @Adapt(
+                value=MetaTest.class,
+                types ={Gene.Self.class},
+                names = {"X"}
+                 )
+                class Da<T>{
+                    T id;
+                    Da<T> parent;
+                    List<Da<T>> children;
+                    public T getId(){
+                        return id;
+                    }
+                    @Mode.ReadOnly
+                    public Da<T> getParent(){
+                        return parent;
+                    }
+                    @Mode.ReadOnly
+                    public List<Da<T>> getChildren(){
+                        return children;
+                    }
+                }
+            }
+            """);
+
+    /**
+     * @return a clean project directory under target, which compiled with real files by {@link #compileFiles(Path)}.
+     */
+    static Path project(String name) {
+        var dir = Paths.get("target", name).toAbsolutePath();
+        clean(dir);
+        return dir;
+    }
+
+    @SneakyThrows
+    static void clean(Path dir) {
+        if (!Files.exists(dir)) return;
+        try (var s = Files.walk(dir)) {
+            for (var p : s.sorted(Comparator.reverseOrder()).toList()) Files.delete(p);
+        }
+    }
+
+    @SneakyThrows
+    static void source(Path dir, String path, String content) {
+        var p = dir.resolve("src").resolve(path);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, content);
+    }
+
+    /**
+     * compile sources of project with the file system, as javac of a build tool, which locates the module by CLASS_OUTPUT.
+     */
+    @SneakyThrows
+    static boolean compileFiles(Path dir) {
+        var javac = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        try (var fm = javac.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            var classes = Files.createDirectories(dir.resolve("classes"));
+            var generated = Files.createDirectories(dir.resolve("generated"));
+            fm.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classes));
+            fm.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(generated));
+            List<Path> sources;
+            try (var s = Files.walk(dir.resolve("src"))) {
+                sources = s.filter(x -> x.toString().endsWith(".java")).toList();
+            }
+            var task = javac.getTask(null, fm, diagnostics, null, null, fm.getJavaFileObjectsFromPaths(sources));
+            task.setProcessors(List.of(new ModelerProcessor()));
+            var ok = task.call();
+            if (!ok || print) diagnostics.getDiagnostics().forEach(System.out::println);
+            return ok;
+        }
+    }
+
+    /**
+     * @return class loaded from the class outputs of compilation
+     */
+    @SneakyThrows
+    static Class<?> load(Compilation compilation, String name) {
+        var loader = new ClassLoader(GeneTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String n) throws ClassNotFoundException {
+                var f = compilation.generatedFile(StandardLocation.CLASS_OUTPUT, n.replace('.', '/') + ".class");
+                if (f.isEmpty()) throw new ClassNotFoundException(n);
+                try (var in = f.get().openInputStream()) {
+                    var b = in.readAllBytes();
+                    return defineClass(n, b, 0, b.length);
+                } catch (java.io.IOException e) {
+                    throw new ClassNotFoundException(n, e);
+                }
+            }
+        };
+        return loader.loadClass(name);
+    }
+
     @SneakyThrows
     static void print(Compilation compilation) {
         if (!print) return;
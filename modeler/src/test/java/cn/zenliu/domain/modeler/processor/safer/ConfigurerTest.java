@@ -0,0 +1,112 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurerTest {
+    @SneakyThrows
+    static Path write(Path file, String content, long modified) {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    @Test
+    void testLoad(@TempDir Path dir) {
+        var file = write(dir.resolve(Configurer.FILE_NAME), "a=1", 1000_000L);
+        var p = Configurer.load(file);
+        assertSame(p, Configurer.load(file), "parsed once until modified");
+        write(file, "a=2", 2000_000L);
+        assertEquals("2", Configurer.load(file).getProperty("a"));
+        assertNull(Configurer.load(dir.resolve("missing.properties")));
+    }
+
+    @Test
+    void testResolved(@TempDir Path dir) {
+        var file = write(dir.resolve(Configurer.FILE_NAME), "a=1", 1000_000L);
+        var r = new Configurer.Resolved(Configurer.parse(file), Map.of(file, Configurer.modified(file)));
+        assertTrue(r.valid());
+        write(file, "a=2", 2000_000L);
+        assertFalse(r.valid(), "invalid after config modified");
+    }
+
+    @Test
+    void testTrie() {
+        var a = Path.of("/p/a").toAbsolutePath();
+        var ab = Path.of("/p/a/b").toAbsolutePath();
+        var empty = Path.of("/p/c").toAbsolutePath();
+        var trie = Configurer.PathTrie.of(Map.of(
+                a, new TreeSet<>(Set.of(a.resolve(Configurer.FILE_NAME))),
+                ab, new TreeSet<>(Set.of(ab.resolve(Configurer.FILE_NAME))),
+                empty, new TreeSet<>()));
+        assertEquals(a, trie.longest(a.resolve("src/main/java")));
+        assertEquals(ab, trie.longest(ab.resolve("src")));
+        assertNull(trie.longest(Path.of("/p/ab/src").toAbsolutePath()), "names are not string prefixes");
+        assertNull(trie.longest(empty.resolve("src")), "module without config");
+    }
+
+    @Test
+    void testSubmodule() {
+        var conf = Path.of("/p/a", Configurer.FILE_NAME).toAbsolutePath();
+        assertTrue(Configurer.isSubmodule(Path.of("/p/a").toAbsolutePath(), conf));
+        assertTrue(Configurer.isSubmodule(Path.of("/p/a/m/sub").toAbsolutePath(), conf));
+        assertFalse(Configurer.isSubmodule(Path.of("/p/ab").toAbsolutePath(), conf), "names are not string prefixes");
+        assertFalse(Configurer.isSubmodule(Path.of("/p").toAbsolutePath(), conf));
+    }
+
+    @Test
+    void testTimestamp(@TempDir Path dir) {
+        assertEquals(0L, Configurer.parse(write(dir.resolve("fixed.properties"), "timestamp=fixed", 1000_000L)).timestamp());
+        assertEquals(42L, Configurer.parse(write(dir.resolve("literal.properties"), "timestamp=42", 1000_000L)).timestamp());
+        var c = Configurer.parse(write(dir.resolve("typo.properties"), "timestamp=curent", 1000_000L));
+        var before = System.currentTimeMillis();
+        assertTrue(c.timestamp() >= before, "invalid value falls back to current");
+        assertTrue(c.timestamp() >= before);
+        var r = Configurer.parse(write(dir.resolve("reproducible.properties"), "reproducible=true\ntimestamp=curent", 1000_000L));
+        assertEquals(Configurer.Config.sourceDateEpoch(), r.timestamp(), "falls back to epoch in reproducible mode");
+    }
+
+    @Test
+    void testCompile(@TempDir Path dir) {
+        var root = write(dir.resolve(Configurer.FILE_NAME), "a=root\nb=root\nproc.x.enabled=false", 1000_000L);
+        var module = write(dir.resolve("m").resolve(Configurer.FILE_NAME), "a=module\nn=1", 1000_000L);
+        var c = Configurer.parse(Set.of(root, module));
+        assertEquals("module", c.readString("a").orElseThrow(), "deeper config takes precedence");
+        assertEquals("root", c.readString("b").orElseThrow());
+        assertEquals(1, c.readInteger("n").orElseThrow());
+        assertEquals("1", c.readString("n").orElseThrow(), "raw values are not cached by type");
+        assertTrue(c.enabled(null));
+        assertFalse(c.enabled("proc.x."));
+        assertTrue(c.enabled("proc.y."));
+        var key = new Object();
+        var compiled = c.compile(key, x -> x.readString("a").orElseThrow());
+        assertSame(compiled, c.compile(key, x -> fail("compiled twice")));
+        assertEquals("root", Configurer.parse(root).compile(key, x -> x.readString("a").orElseThrow()), "compiled per config");
+    }
+}
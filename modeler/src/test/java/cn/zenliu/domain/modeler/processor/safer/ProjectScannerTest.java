@@ -0,0 +1,74 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectScannerTest {
+    @SneakyThrows
+    static Path touch(Path dir, String path) {
+        var p = dir.resolve(path);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, "");
+        return p;
+    }
+
+    static ProjectScanner scanner(Path root) {
+        return new ProjectScanner(root, 3, Configurer::buildFile, Configurer::configFile);
+    }
+
+    @Test
+    void testScan(@TempDir Path dir) {
+        var pom = touch(dir, "pom.xml");
+        var conf = touch(dir, Configurer.FILE_NAME);
+        var sub = touch(dir, "sub/pom.xml");
+        var subConf = touch(dir, "sub/" + Configurer.FILE_NAME);
+        assertNull(scanner(dir).index(), "no index before built");
+        touch(dir, "target/x/" + Configurer.FILE_NAME);
+        touch(dir, ".idea/" + Configurer.FILE_NAME);
+        touch(dir, "a/b/c/" + Configurer.FILE_NAME);
+        var r = scanner(dir).scan(0);
+        assertEquals(Set.of(pom, sub), r.builds());
+        assertEquals(Set.of(conf, subConf), r.configs());
+    }
+
+    @SneakyThrows
+    @Test
+    void testIndex(@TempDir Path dir) {
+        touch(dir, "pom.xml");
+        var conf = touch(dir, Configurer.FILE_NAME);
+        Files.createDirectories(dir.resolve("target"));
+        var index = scanner(dir).index();
+        assertNotNull(index);
+        assertEquals(dir.resolve("target").resolve(Configurer.OUTPUT_DIR), index.getParent());
+        assertEquals(Set.of(conf), scanner(dir).scan(0).configs());
+        assertTrue(Files.isRegularFile(index));
+        //reused until any directory changed
+        var fake = dir.resolve("fake").resolve(Configurer.FILE_NAME);
+        Files.writeString(index, Files.readString(index) + "C\t" + fake + "\n");
+        assertEquals(Set.of(conf, fake), scanner(dir).scan(0).configs());
+        var sub = touch(dir, "sub/" + Configurer.FILE_NAME);
+        assertEquals(Set.of(conf, sub), scanner(dir).scan(0).configs());
+    }
+}
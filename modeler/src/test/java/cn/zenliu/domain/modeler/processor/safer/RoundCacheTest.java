@@ -0,0 +1,127 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.processor.safer;
+
+import cn.zenliu.domain.modeler.processor.AbstractProcessor;
+import cn.zenliu.domain.modeler.prototype.Meta;
+import com.google.testing.compile.JavaFileObjects;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoundCacheTest {
+    /**
+     * queries of a round through ProcUtil are loaded once.
+     */
+    @Test
+    void testRound() {
+        var cache = new RoundCache();
+        var checked = new AtomicBoolean();
+        var compilation = javac()
+                .withProcessors(new javax.annotation.processing.AbstractProcessor() {
+                    @Override
+                    public Set<String> getSupportedAnnotationTypes() {
+                        return Set.of("*");
+                    }
+
+                    @Override
+                    public SourceVersion getSupportedSourceVersion() {
+                        return SourceVersion.latestSupported();
+                    }
+
+                    @Override
+                    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                        if (roundEnv.processingOver()) return false;
+                        var u = new ProcUtilPacker(base(processingEnv), cache, new Emitter(processingEnv.getFiler(), null));
+                        var loads = new AtomicInteger();
+                        var e = cache.typeElement("some.pack.MetaTest", x -> {
+                            loads.incrementAndGet();
+                            return processingEnv.getElementUtils().getTypeElement(x);
+                        });
+                        assertSame(e, u.typeElementOf("some.pack.MetaTest"));
+                        assertEquals(1, loads.get());
+                        assertNull(cache.typeElement("no.such.Type", processingEnv.getElementUtils()::getTypeElement));
+                        assertSame(u.allMembers(e), u.allMembers(e));
+                        assertTrue(u.isAssignableTo(e.asType(), Meta.Object.class));
+                        assertTrue(u.isAssignableTo(e.asType(), Meta.Object.class));
+                        u.resolveTypeParameters(e).clear();
+                        assertEquals(Set.of("T"), u.resolveTypeParameters(e).keySet());
+                        assertEquals("v", cache.shared("test:k", x -> "v"));
+                        assertEquals("v", cache.shared("test:k", x -> fail("shared value loaded twice")));
+                        checked.set(true);
+                        return false;
+                    }
+                })
+                .compile(JavaFileObjects.forSourceString("MetaTest", """
+                        package some.pack;
+                        import cn.zenliu.domain.modeler.prototype.Meta;
+                        public interface MetaTest<T> extends Meta.Object {
+                            T getId();
+                        }
+                        """));
+        assertThat(compilation).succeeded();
+        assertTrue(checked.get());
+        assertTrue(cache.hits() >= 5, cache.toString());
+    }
+
+    static BaseProcUtil base(ProcessingEnvironment env) {
+        return new BaseProcUtil() {
+            @Override
+            public Map<String, AbstractProcessor> processors() {
+                return Map.of();
+            }
+
+            @Override
+            public ProcessingEnvironment env() {
+                return env;
+            }
+
+            @Override
+            public Elements elements() {
+                return env.getElementUtils();
+            }
+
+            @Override
+            public Types types() {
+                return env.getTypeUtils();
+            }
+
+            @Override
+            public Filer filer() {
+                return env.getFiler();
+            }
+
+            @Override
+            public boolean isDebug() {
+                return false;
+            }
+        };
+    }
+}
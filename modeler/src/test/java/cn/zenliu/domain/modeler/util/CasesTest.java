@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CasesTest {
     @Test
@@ -47,6 +48,8 @@ class CasesTest {
         assertEquals("pasCase", Cases.toCamel("PAS_Case").toString());
         assertEquals("pasCase", Cases.toCamel("PASCase").toString());
         assertEquals("pasCaseC", Cases.toCamel("PASCaseC").toString());
+        assertEquals("name", Cases.toCamel("name").toString());
+        assertEquals("name", Cases.toCamel("NAME").toString());
     }
 
     @Test
@@ -90,4 +93,26 @@ class CasesTest {
         assertEquals(List.of("PAS", "Case"), Cases.toWords("PASCase"));
         assertEquals(List.of("PAS", "Case", "C"), Cases.toWords("PASCaseC"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNoneAscii() {
+        assertEquals("état_civil", Cases.toSnake("étatCivil").toString());
+        assertEquals("ÉTAT_CIVIL", Cases.toScreaming("étatCivil").toString());
+        assertEquals("ÉtatCivil", Cases.toPascal("état_civil").toString());
+        assertEquals("étatCivil", Cases.toCamel("État_civil").toString());
+        assertEquals(List.of("état", "Civil"), Cases.toWords("étatCivil"));
+    }
+
+    @Test
+    void testCached() {
+        var c = Cases.cached(Cases.Type.CAMEL, Cases.Type.SNAKE, 4);
+        assertEquals("pascal_case", c.apply("pascalCase"));
+        assertEquals("pascal_case", c.apply("pascalCase"));
+        assertEquals(1, c.hits());
+        assertEquals(1, c.misses());
+        for (var s : List.of("aB", "bC", "cD", "dE", "eF")) c.apply(s);
+        assertTrue(c.size() <= 4);
+        assertTrue(c.evictions() > 0);
+        assertEquals("e_f", c.apply("eF"));
+    }
+}
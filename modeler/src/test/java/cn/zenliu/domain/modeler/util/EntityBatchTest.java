@@ -0,0 +1,107 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.util;
+
+import cn.zenliu.domain.modeler.prototype.Meta;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityBatchTest {
+    static class Row implements Meta.ObjectStyleEntity {
+        @Override
+        public boolean delete() {
+            return delete(EntityBatch.current());
+        }
+
+        @Override
+        public void save() {
+            save(EntityBatch.current());
+        }
+    }
+
+    static class TrackedRow extends Row implements Meta.Tracked {
+        boolean dirty;
+
+        @Override
+        public List<String> fieldNames() {
+            return List.of("name");
+        }
+
+        @Override
+        public BitSet dirtyFields() {
+            var b = new BitSet();
+            if (dirty) b.set(0);
+            return b;
+        }
+
+        @Override
+        public boolean isDirty() {
+            return dirty;
+        }
+
+        @Override
+        public void clearDirty() {
+            dirty = false;
+        }
+    }
+
+    @Test
+    void testEntityBatch() {
+        var writes = new ArrayList<String>();
+        var a = new Row();
+        var b = new Row();
+        try (var batch = EntityBatch.open((t, s, d) -> writes.add(t.getSimpleName() + ":" + s.size() + ":" + d.size()))) {
+            a.save();
+            b.save();
+            a.save();
+            assertTrue(b.delete());
+            a.save(batch);
+            assertSame(batch, EntityBatch.current());
+            assertEquals(2, batch.size());
+        }
+        assertNull(EntityBatch.current());
+        assertEquals(List.of("Row:1:1"), writes);
+    }
+
+    @Test
+    void testTracked() {
+        var clean = new TrackedRow();
+        var dirty = new TrackedRow();
+        dirty.dirty = true;
+        var saved = new ArrayList<Meta.ObjectStyleEntity>();
+        try (var batch = EntityBatch.open((t, s, d) -> saved.addAll(s))) {
+            clean.save();
+            dirty.save();
+        }
+        //explicit saves are never dropped, the writer decides by dirty fields
+        assertEquals(List.of(clean, dirty), saved);
+        assertFalse(dirty.isDirty());
+    }
+
+    @Test
+    void testNoBatch() {
+        var a = new Row();
+        assertNull(EntityBatch.current());
+        a.save();
+        assertFalse(a.delete());
+        assertThrows(IllegalStateException.class, EntityBatch::require);
+    }
+}
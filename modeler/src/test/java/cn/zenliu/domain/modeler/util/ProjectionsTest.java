@@ -0,0 +1,87 @@
+/*
+ * Source of domain
+ * Copyright (C) 2023.  Zen.Liu
+ *
+ * SPDX-License-Identifier: GPL-2.0-only WITH Classpath-exception-2.0"
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by the Free Software Foundation; version 2.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ *
+ * Class Path Exception
+ * Linking this library statically or dynamically with other modules is making a combined work based on this library. Thus, the terms and conditions of the GNU General Public License cover the whole combination.
+ *  As a special exception, the copyright holders of this library give you permission to link this library with independent modules to produce an executable, regardless of the license terms of these independent modules, and to copy and distribute the resulting executable under terms of your choice, provided that you also meet, for each linked independent module, the terms and conditions of the license of that module. An independent module is a module which is not derived from or based on this library. If you modify this library, you may extend this exception to your version of the library, but you are not obligated to do so. If you do not wish to do so, delete this exception statement from your version.
+ */
+
+package cn.zenliu.domain.modeler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionsTest {
+    @Test
+    void testInto() {
+        var out = new ArrayList<Integer>();
+        Projections.into(String::length, List.of("a", "bb", "ccc"), out);
+        assertEquals(List.of(1, 2, 3), out);
+        var sum = new int[1];
+        Projections.into(String::length, List.of("a", "bb"), (Integer i) -> sum[0] += i);
+        assertEquals(3, sum[0]);
+        Projections.into(String::length, null, out);
+        assertEquals(3, out.size());
+    }
+
+    @Test
+    void testProjection() {
+        var p = Projections.Projection.<String, Integer>of(String::length).then(i -> i * 2);
+        assertEquals(List.of(2, 4, 6), p.list(List.of("a", "bb", "ccc")));
+        assertEquals(Set.of(2, 4), p.set(List.of("a", "bb", "cc")));
+        assertNull(p.list(null));
+        assertThrows(UnsupportedOperationException.class, () -> p.list(List.of("a")).add(1));
+        assertThrows(UnsupportedOperationException.class, () -> p.set(List.of("a")).add(1));
+        assertSame(p, Projections.Projection.of(p));
+    }
+
+    @Test
+    void testViews() {
+        var calls = new int[1];
+        Function<String, Integer> len = x -> {
+            calls[0]++;
+            return x.length();
+        };
+        var src = new ArrayList<>(List.of("a", "bb"));
+        var v = Projections.listView(len, src);
+        assertEquals(0, calls[0]);
+        assertEquals(2, v.get(1));
+        assertEquals(1, calls[0]);
+        src.add("ccc");
+        assertEquals(List.of(1, 2, 3), v);
+        assertEquals(List.of(1, 2, 3), Projections.listView(len, new LinkedList<>(src)));
+        assertThrows(UnsupportedOperationException.class, () -> v.add(1));
+        assertEquals(Set.of(1, 2), Projections.setView(len, Set.of("a", "bb")));
+        assertEquals(List.of(3), Projections.setToListView(len, Set.of("ccc")));
+        var m = Projections.mapValueView(len, Map.of(1, "a", 2, "bb"));
+        assertEquals(2, m.get(2));
+        assertNull(m.get(3));
+        assertEquals(Map.of(1, 1, 2, 2), m);
+        assertEquals(Map.of("A", 1), Projections.map(String::toUpperCase, String::length, Map.of("a", "b")));
+        assertNull(Projections.listView(len, null));
+    }
+
+    @Test
+    void testPrimitiveArrays() {
+        var src = List.of("ccc", "a", "bb", "a");
+        assertArrayEquals(new long[]{3, 1, 2, 1}, Projections.toLongArray(String::length, src));
+        assertArrayEquals(new int[]{1, 1, 2, 3}, Projections.toSortedIntArray(String::length, src));
+        assertArrayEquals(new long[]{1, 2, 3}, Projections.toDistinctLongArray(String::length, src));
+        assertArrayEquals(new int[]{1, 2, 3}, Projections.toDistinctIntArray(String::length, src));
+        assertNull(Projections.toIntArray(String::length, null));
+        var ids = Projections.toDistinctLongArray(Long::longValue, List.of(300L, 1L, 70000L, 1L));
+        var b = Bytes.write(new byte[4], 0, 16).put(ids);
+        assertArrayEquals(ids, Bytes.read(b.buf()).readLongs());
+    }
+}